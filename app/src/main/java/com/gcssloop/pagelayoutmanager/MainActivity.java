@@ -106,13 +106,13 @@ public class MainActivity extends AppCompatActivity implements PagerGridLayoutMa
 
     public void addOne(View view) {
         mAdapter.data.add(0, "add");
-        mAdapter.notifyDataSetChanged();
+        mAdapter.notifyItemInserted(0);
     }
 
     public void removeOne(View view) {
         if (mAdapter.data.size() > 0) {
             mAdapter.data.remove(0);
-            mAdapter.notifyDataSetChanged();
+            mAdapter.notifyItemRemoved(0);
         }
     }
 
@@ -121,8 +121,9 @@ public class MainActivity extends AppCompatActivity implements PagerGridLayoutMa
         for (int i = 1; i <= 5; i++) {
             data.add(i + "a");
         }
+        int start = mAdapter.data.size();
         mAdapter.data.addAll(data);
-        mAdapter.notifyDataSetChanged();
+        mAdapter.notifyItemRangeInserted(start, data.size());
     }
 
     @SuppressLint("WrongConstant")
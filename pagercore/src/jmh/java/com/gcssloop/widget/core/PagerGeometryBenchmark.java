@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 作用：PagerGeometry 基准测试
+ * 作者：GcsSloop
+ * 摘要：测量 位置->显示区域、偏移量->显示范围、偏移量->目标页面 三类计算，
+ * 网格从 1x1 到 100x100，条目数量最多 4 亿(偏移量超出 int 范围)。
+ * 运行：./gradlew :pagercore:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PagerGeometryBenchmark {
+
+    @Param({"1x1", "4x6", "10x10", "100x100"})
+    public String grid;
+
+    @Param({"1000", "10000000", "400000000"})
+    public int itemCount;
+
+    @Param({"0", "1"})
+    public int orientation;
+
+    private PagerGeometry mGeometry;
+    private int mPosition;
+    private long mOffset;
+    private int mOffsetStep;
+
+    @Setup
+    public void setup() {
+        String[] size = grid.split("x");
+        mGeometry = new PagerGeometry(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        mGeometry.setOrientation(orientation);
+        mGeometry.setPageSize(1080, 1920);
+        mGeometry.setItemCount(itemCount);
+        mPosition = 0;
+        mOffset = 0;
+        // 每次调用移动一个不整除页面尺寸的距离，覆盖页面内的各种位置
+        mOffsetStep = mGeometry.getLineLength() / 3 + 7;
+    }
+
+    private int nextPosition() {
+        mPosition += 7919;
+        if (mPosition >= itemCount) mPosition -= itemCount;
+        return mPosition;
+    }
+
+    private long nextOffset() {
+        mOffset += mOffsetStep;
+        if (mOffset > mGeometry.getMaxScroll()) mOffset = 0;
+        return mOffset;
+    }
+
+    @Benchmark
+    public void positionToFrame(Blackhole blackhole) {
+        int pos = nextPosition();
+        blackhole.consume(mGeometry.getItemLeft(pos));
+        blackhole.consume(mGeometry.getItemTop(pos));
+    }
+
+    @Benchmark
+    public void offsetToVisibleRange(Blackhole blackhole) {
+        long offset = nextOffset();
+        int lineLength = mGeometry.getLineLength();
+        blackhole.consume(mGeometry.getFirstLineByOffset(offset - lineLength));
+        blackhole.consume(mGeometry.getLastLineByOffset(
+                offset + mGeometry.getPageLength() + lineLength));
+    }
+
+    @Benchmark
+    public void offsetToPageTarget(Blackhole blackhole) {
+        int page = mGeometry.getPageIndexByOffset(nextOffset());
+        blackhole.consume(mGeometry.getPageStart(page));
+    }
+}
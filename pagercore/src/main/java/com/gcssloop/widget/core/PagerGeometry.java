@@ -0,0 +1,350 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+/**
+ * 作用：分页网格的几何计算
+ * 作者：GcsSloop
+ * 摘要：
+ * 1. 不依赖 Android，可以直接在 JVM 上测试和做基准测试
+ * 2. 所有计算都是 O(1) 的算术运算，不分配对象
+ * 3. 将所有页面的列(水平滚动)或行(垂直滚动)按顺序编号，称为"行(列)序号"，
+ *    第 page 页的第 i 列(行)序号为 page * 每页列(行)数 + i，
+ *    这样显示区域内的条目一定是一段连续的行(列)，可以直接通过偏移量计算得到。
+ * 4. 滚动方向上的位置(偏移量、页面起点、条目起点)使用 long 表示，
+ *    条目数量达到数亿时 页数 * 页面尺寸 会超出 int 范围；页面内的尺寸仍然使用 int。
+ */
+public class PagerGeometry {
+    public static final int VERTICAL = 0;           // 垂直滚动
+    public static final int HORIZONTAL = 1;         // 水平滚动
+
+    private final int mRows;                        // 行数
+    private final int mColumns;                     // 列数
+    private final int mOnePageSize;                 // 一页的条目数量
+
+    private boolean mHorizontal = true;             // 是否水平滚动
+    private int mPageWidth = 0;                     // 页面宽度
+    private int mPageHeight = 0;                    // 页面高度
+    private int mItemWidth = 0;                     // 条目宽度
+    private int mItemHeight = 0;                    // 条目高度
+    private int mItemCount = 0;                     // 条目总数
+
+    /**
+     * 构造函数
+     *
+     * @param rows    行数
+     * @param columns 列数
+     */
+    public PagerGeometry(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("rows and columns must be positive");
+        }
+        mRows = rows;
+        mColumns = columns;
+        mOnePageSize = rows * columns;
+    }
+
+    //--- 配置 -------------------------------------------------------------------------------------
+
+    /**
+     * 设置滚动方向
+     *
+     * @param orientation {@link #HORIZONTAL} 或 {@link #VERTICAL}
+     */
+    public void setOrientation(int orientation) {
+        mHorizontal = orientation == HORIZONTAL;
+    }
+
+    /**
+     * 设置页面尺寸，同时计算条目尺寸
+     *
+     * @param width  页面宽度
+     * @param height 页面高度
+     */
+    public void setPageSize(int width, int height) {
+        mPageWidth = width;
+        mPageHeight = height;
+        mItemWidth = width / mColumns;
+        mItemHeight = height / mRows;
+    }
+
+    /**
+     * 设置条目总数
+     *
+     * @param itemCount 条目总数
+     */
+    public void setItemCount(int itemCount) {
+        mItemCount = itemCount;
+    }
+
+    public boolean isHorizontal() {
+        return mHorizontal;
+    }
+
+    public int getRows() {
+        return mRows;
+    }
+
+    public int getColumns() {
+        return mColumns;
+    }
+
+    public int getOnePageSize() {
+        return mOnePageSize;
+    }
+
+    public int getItemWidth() {
+        return mItemWidth;
+    }
+
+    public int getItemHeight() {
+        return mItemHeight;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * 判断是否可以进行布局计算
+     *
+     * @return 页面和条目尺寸都有效时返回 true
+     */
+    public boolean isValid() {
+        return mItemWidth > 0 && mItemHeight > 0;
+    }
+
+    //--- 页面 -------------------------------------------------------------------------------------
+
+    /**
+     * 获取总页数
+     *
+     * @return 总页数
+     */
+    public int getPageCount() {
+        if (mItemCount <= 0) return 0;
+        return (mItemCount - 1) / mOnePageSize + 1;
+    }
+
+    /**
+     * 获取条目所在的页码
+     *
+     * @param pos 条目下标
+     * @return 页码
+     */
+    public int getPageIndexByPosition(int pos) {
+        return pos / mOnePageSize;
+    }
+
+    /**
+     * 获取滚动方向上一页的尺寸
+     *
+     * @return 水平滚动时为页面宽度，垂直滚动时为页面高度
+     */
+    public int getPageLength() {
+        return mHorizontal ? mPageWidth : mPageHeight;
+    }
+
+    /**
+     * 获取页面在滚动方向上的起始位置
+     *
+     * @param page 页码
+     * @return 起始位置
+     */
+    public long getPageStart(int page) {
+        return (long) page * getPageLength();
+    }
+
+    /**
+     * 获取最大滚动距离
+     *
+     * @return 最大滚动距离
+     */
+    public long getMaxScroll() {
+        int pageCount = getPageCount();
+        return pageCount <= 0 ? 0 : (long) (pageCount - 1) * getPageLength();
+    }
+
+    /**
+     * 根据偏移量获取最接近的页码，超过页面一半时认为是下一页
+     *
+     * @param offset 偏移量
+     * @return 页码
+     */
+    public int getPageIndexByOffset(long offset) {
+        int pageLength = getPageLength();
+        if (pageLength <= 0 || offset <= 0) return 0;
+        int page = (int) (offset / pageLength);
+        if (offset - (long) page * pageLength > pageLength / 2) {
+            page++;
+        }
+        return page;
+    }
+
+    //--- 条目 -------------------------------------------------------------------------------------
+
+    /**
+     * 获取条目左边界
+     *
+     * @param pos 条目下标
+     * @return 左边界
+     */
+    public long getItemLeft(int pos) {
+        int page = pos / mOnePageSize;
+        int col = (pos - page * mOnePageSize) % mColumns;
+        int left = col * mItemWidth;
+        return mHorizontal ? (long) page * mPageWidth + left : left;
+    }
+
+    /**
+     * 获取条目上边界
+     *
+     * @param pos 条目下标
+     * @return 上边界
+     */
+    public long getItemTop(int pos) {
+        int page = pos / mOnePageSize;
+        int row = (pos - page * mOnePageSize) / mColumns;
+        int top = row * mItemHeight;
+        return mHorizontal ? top : (long) page * mPageHeight + top;
+    }
+
+    //--- 行(列) -----------------------------------------------------------------------------------
+
+    /**
+     * 获取滚动方向上一行(列)的尺寸
+     *
+     * @return 水平滚动时为条目宽度，垂直滚动时为条目高度
+     */
+    public int getLineLength() {
+        return mHorizontal ? mItemWidth : mItemHeight;
+    }
+
+    /**
+     * 获取一页中的行(列)数
+     *
+     * @return 水平滚动时为列数，垂直滚动时为行数
+     */
+    public int getLinesPerPage() {
+        return mHorizontal ? mColumns : mRows;
+    }
+
+    /**
+     * 获取一行(列)中的条目数
+     *
+     * @return 水平滚动时为行数，垂直滚动时为列数
+     */
+    public int getItemsPerLine() {
+        return mHorizontal ? mRows : mColumns;
+    }
+
+    /**
+     * 获取最后一个行(列)序号
+     *
+     * @return 行(列)序号，没有条目时为 -1
+     */
+    public int getMaxLine() {
+        return getPageCount() * getLinesPerPage() - 1;
+    }
+
+    /**
+     * 获取与显示区域起点相交的第一个行(列)序号
+     *
+     * @param start 显示区域起点(包含)
+     * @return 行(列)序号
+     */
+    public int getFirstLineByOffset(long start) {
+        if (start < 0) start = 0;
+        int pageLength = getPageLength();
+        int page = (int) (start / pageLength);
+        int line = (int) (start - (long) page * pageLength) / getLineLength();
+        if (line >= getLinesPerPage()) {
+            // 处于页面末尾的空白区域，从下一页开始
+            return (page + 1) * getLinesPerPage();
+        }
+        return page * getLinesPerPage() + line;
+    }
+
+    /**
+     * 获取与显示区域终点相交的最后一个行(列)序号
+     *
+     * @param end 显示区域终点(不包含)
+     * @return 行(列)序号
+     */
+    public int getLastLineByOffset(long end) {
+        long last = end - 1;
+        if (last < 0) return -1;
+        int pageLength = getPageLength();
+        int page = (int) (last / pageLength);
+        int line = (int) (last - (long) page * pageLength) / getLineLength();
+        if (line >= getLinesPerPage()) {
+            line = getLinesPerPage() - 1;
+        }
+        return Math.min(page * getLinesPerPage() + line, getMaxLine());
+    }
+
+    /**
+     * 获取行(列)在滚动方向上的起始位置
+     *
+     * @param line 行(列)序号
+     * @return 起始位置
+     */
+    public long getLineStart(int line) {
+        int page = line / getLinesPerPage();
+        return (long) page * getPageLength()
+                + (line - page * getLinesPerPage()) * getLineLength();
+    }
+
+    /**
+     * 根据行(列)序号获取条目下标
+     *
+     * @param line  行(列)序号
+     * @param index 在该行(列)中的第几个
+     * @return 条目下标
+     */
+    public int getPositionByLine(int line, int index) {
+        int page = line / getLinesPerPage();
+        int inPage = line - page * getLinesPerPage();
+        if (mHorizontal) {
+            return page * mOnePageSize + index * mColumns + inPage;
+        } else {
+            return page * mOnePageSize + inPage * mColumns + index;
+        }
+    }
+
+    /**
+     * 根据条目下标获取所在的行(列)序号
+     *
+     * @param pos 条目下标
+     * @return 行(列)序号
+     */
+    public int getLineByPosition(int pos) {
+        int page = pos / mOnePageSize;
+        int pagePos = pos - page * mOnePageSize;
+        if (mHorizontal) {
+            return page * mColumns + pagePos % mColumns;
+        } else {
+            return page * mRows + pagePos / mColumns;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import java.util.Arrays;
+
+/**
+ * 作用：条目曝光统计
+ * 作者：GcsSloop
+ * 摘要：
+ * 1. 条目在滚动方向上的可见比例达到 minVisibleFraction，并且持续 minDwellMillis 后记为一次曝光，
+ *    条目离开显示区域(或可见比例不足)后再次显示会重新计算
+ * 2. 可见比例直接通过 {@link PagerGeometry} 和偏移量计算，不需要遍历子View；
+ *    同一行(列)中的条目可见比例相同，垂直于滚动方向的部分总是完整显示
+ * 3. 显示区域最多跨越相邻的两页，所以用 2 * 每页条目数 大小的基本类型数组按 pos % 容量 保存状态，
+ *    同时显示的条目不会冲突；每次更新只访问上次和本次显示的行(列)，不分配对象
+ * 4. 达到条件的曝光先放入待发送队列，调用 {@link #flush(long)} 时批量回调，通常在滚动停止时调用
+ * 5. 时间由调用者传入，便于使用模拟时钟测试
+ */
+public class PagerImpressionTracker {
+    private final PagerGeometry mGeometry;
+    private final int mCapacity;                    // 状态数组容量，2 * 每页条目数
+
+    private final int[] mSlotPos;                   // 槽位中的条目下标，-1 表示空
+    private final long[] mSlotStart;                // 开始满足可见比例的时间，-1 表示不满足
+    private final boolean[] mSlotFired;             // 本次显示中是否已经曝光
+
+    private final int[] mPendingPos;                // 待发送的曝光条目下标
+    private final long[] mPendingDwell;             // 待发送的曝光条目已经显示的时间
+    private int mPendingCount = 0;
+
+    private int mFirstLine = -1;                    // 上次更新时显示的第一个行(列)序号
+    private int mLastLine = -1;                     // 上次更新时显示的最后一个行(列)序号
+    private long mOffset = 0;                       // 上次更新时的偏移量
+    private int mPageLength = 0;                    // 上次更新时的页面尺寸
+    private int mLineLength = 0;                    // 上次更新时的行(列)尺寸
+
+    private float mMinVisibleFraction = 0.5f;       // 最小可见比例
+    private long mMinDwellMillis = 1000;            // 最短显示时间(毫秒)
+
+    private Listener mListener = null;
+
+    /**
+     * 构造函数
+     *
+     * @param geometry 分页网格的几何计算，页面尺寸和条目数量由调用者维护
+     */
+    public PagerImpressionTracker(PagerGeometry geometry) {
+        mGeometry = geometry;
+        mCapacity = geometry.getOnePageSize() * 2;
+        mSlotPos = new int[mCapacity];
+        mSlotStart = new long[mCapacity];
+        mSlotFired = new boolean[mCapacity];
+        mPendingPos = new int[mCapacity * 2];
+        mPendingDwell = new long[mCapacity * 2];
+        Arrays.fill(mSlotPos, -1);
+    }
+
+    /**
+     * 设置曝光条件
+     *
+     * @param minVisibleFraction 最小可见比例，范围 (0, 1]
+     * @param minDwellMillis     最短显示时间(毫秒)
+     */
+    public void setThreshold(float minVisibleFraction, long minDwellMillis) {
+        if (minVisibleFraction <= 0 || minVisibleFraction > 1 || minDwellMillis < 0) {
+            throw new IllegalArgumentException("invalid impression threshold");
+        }
+        mMinVisibleFraction = minVisibleFraction;
+        mMinDwellMillis = minDwellMillis;
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    //--- 更新 -------------------------------------------------------------------------------------
+
+    /**
+     * 根据偏移量更新条目的可见状态，每帧最多调用一次
+     *
+     * @param offset 滚动方向上的偏移量
+     * @param now    当前时间(毫秒)
+     */
+    public void update(long offset, long now) {
+        mOffset = offset;
+        if (!mGeometry.isValid() || mGeometry.getItemCount() <= 0) {
+            hideAll(now);
+            return;
+        }
+        int pageLength = mGeometry.getPageLength();
+        if (pageLength != mPageLength || mGeometry.getLineLength() != mLineLength) {
+            // 尺寸或方向变化后行(列)序号已经改变，按槽位结束所有显示
+            leaveAll(now);
+            mPageLength = pageLength;
+            mLineLength = mGeometry.getLineLength();
+        }
+        int firstLine = mGeometry.getFirstLineByOffset(offset);
+        int lastLine = mGeometry.getLastLineByOffset(offset + pageLength);
+
+        // 离开显示区域的行(列)
+        for (int line = mFirstLine; line >= 0 && line <= mLastLine; line++) {
+            if (line < firstLine || line > lastLine) {
+                hideLine(line, now);
+            }
+        }
+        mFirstLine = firstLine;
+        mLastLine = lastLine;
+
+        // 显示区域内的行(列)
+        int itemCount = mGeometry.getItemCount();
+        int itemsPerLine = mGeometry.getItemsPerLine();
+        for (int line = firstLine; line <= lastLine; line++) {
+            boolean visible = isLineVisible(line);
+            for (int i = 0; i < itemsPerLine; i++) {
+                int pos = mGeometry.getPositionByLine(line, i);
+                if (pos >= itemCount) break;
+                int slot = pos % mCapacity;
+                if (mSlotPos[slot] != pos) {
+                    if (mSlotPos[slot] >= 0) {
+                        leave(slot, now);
+                    }
+                    mSlotPos[slot] = pos;
+                    mSlotStart[slot] = -1;
+                    mSlotFired[slot] = false;
+                }
+                if (visible) {
+                    if (mSlotStart[slot] < 0) {
+                        mSlotStart[slot] = now;
+                    }
+                    check(slot, now);
+                } else {
+                    endVisible(slot, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查显示中的条目是否达到曝光条件，并批量回调所有待发送的曝光
+     *
+     * @param now 当前时间(毫秒)
+     * @return 距离下一个条目达到曝光条件的时间(毫秒)，没有等待中的条目时返回 -1
+     */
+    public long flush(long now) {
+        long next = -1;
+        for (int line = mFirstLine; line >= 0 && line <= mLastLine; line++) {
+            for (int i = 0; i < mGeometry.getItemsPerLine(); i++) {
+                int slot = slotOf(line, i);
+                if (slot < 0) continue;
+                check(slot, now);
+                if (mSlotStart[slot] >= 0 && !mSlotFired[slot]) {
+                    long delay = mSlotStart[slot] + mMinDwellMillis - now;
+                    if (next < 0 || delay < next) next = delay;
+                }
+            }
+        }
+        dispatchPending();
+        return next;
+    }
+
+    /**
+     * 所有条目离开显示区域(例如界面不可见)，批量回调待发送的曝光
+     *
+     * @param now 当前时间(毫秒)
+     */
+    public void hideAll(long now) {
+        leaveAll(now);
+        dispatchPending();
+    }
+
+    /**
+     * 清除所有状态，数据变化后条目下标已经失效，正在计时和待发送的曝光都会被丢弃
+     */
+    public void reset() {
+        Arrays.fill(mSlotPos, -1);
+        mPendingCount = 0;
+        mFirstLine = -1;
+        mLastLine = -1;
+    }
+
+    //--- 私有方法 ----------------------------------------------------------------------------------
+
+    /**
+     * 判断行(列)的可见比例是否达到曝光条件
+     */
+    private boolean isLineVisible(int line) {
+        int lineLength = mGeometry.getLineLength();
+        long lineStart = mGeometry.getLineStart(line);
+        long end = mOffset + mGeometry.getPageLength();
+        long visible = Math.min(lineStart + lineLength, end) - Math.max(lineStart, mOffset);
+        return visible > 0 && visible >= mMinVisibleFraction * lineLength;
+    }
+
+    /**
+     * 获取行(列)中第 index 个条目所在的槽位
+     *
+     * @return 槽位，条目不存在或没有被记录时返回 -1
+     */
+    private int slotOf(int line, int index) {
+        int pos = mGeometry.getPositionByLine(line, index);
+        if (pos >= mGeometry.getItemCount()) return -1;
+        int slot = pos % mCapacity;
+        return mSlotPos[slot] == pos ? slot : -1;
+    }
+
+    private void leaveAll(long now) {
+        for (int slot = 0; slot < mCapacity; slot++) {
+            if (mSlotPos[slot] >= 0) {
+                leave(slot, now);
+            }
+        }
+        mFirstLine = -1;
+        mLastLine = -1;
+    }
+
+    private void hideLine(int line, long now) {
+        for (int i = 0; i < mGeometry.getItemsPerLine(); i++) {
+            int slot = slotOf(line, i);
+            if (slot >= 0) {
+                leave(slot, now);
+            }
+        }
+    }
+
+    /**
+     * 条目离开显示区域，释放槽位
+     */
+    private void leave(int slot, long now) {
+        endVisible(slot, now);
+        mSlotPos[slot] = -1;
+    }
+
+    /**
+     * 条目不再满足可见比例，结束本次显示
+     */
+    private void endVisible(int slot, long now) {
+        check(slot, now);
+        mSlotStart[slot] = -1;
+        mSlotFired[slot] = false;
+    }
+
+    /**
+     * 条目满足可见比例的时间达到要求时，放入待发送队列
+     */
+    private void check(int slot, long now) {
+        long start = mSlotStart[slot];
+        if (start < 0 || mSlotFired[slot] || now - start < mMinDwellMillis) return;
+        mSlotFired[slot] = true;
+        if (mPendingCount == mPendingPos.length) {
+            // 队列已满(长时间慢速滚动)，提前发送一批
+            dispatchPending();
+        }
+        mPendingPos[mPendingCount] = mSlotPos[slot];
+        mPendingDwell[mPendingCount] = now - start;
+        mPendingCount++;
+    }
+
+    private void dispatchPending() {
+        if (mPendingCount <= 0) return;
+        int count = mPendingCount;
+        mPendingCount = 0;
+        if (mListener != null) {
+            mListener.onImpressions(mPendingPos, mPendingDwell, count);
+        }
+    }
+
+    //--- 对外接口 ----------------------------------------------------------------------------------
+
+    public interface Listener {
+        /**
+         * 批量曝光，数组会被复用，只在回调期间有效
+         *
+         * @param positions   曝光的条目下标
+         * @param dwellMillis 达到曝光条件时条目已经显示的时间(毫秒)
+         * @param count       有效数量
+         */
+        void onImpressions(int[] positions, long[] dwellMillis, int count);
+    }
+}
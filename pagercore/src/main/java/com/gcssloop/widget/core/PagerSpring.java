@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+/**
+ * 作用：页面对齐使用的弹簧
+ * 作者：GcsSloop
+ * 摘要：
+ * 1. 质量为 1 的阻尼弹簧，位置和速度都使用解析解计算，与帧率无关，同一时刻的结果总是相同
+ * 2. 可以在运动过程中更换目标，以当前位置和速度作为新的初始状态，运动保持连续
+ * 3. 单位：位置为像素，时间为毫秒，速度为像素/秒(与 RecyclerView 的 fling 速度一致)
+ */
+public class PagerSpring {
+    public static final float DAMPING_RATIO_NO_BOUNCY = 1f;      // 临界阻尼，不会越过目标
+    public static final float STIFFNESS_MEDIUM = 400f;          // 默认刚度
+
+    private static final float REST_DISPLACEMENT = 0.5f;        // 距离目标小于该值(像素)时认为静止
+    private static final float REST_VELOCITY = 30f;             // 速度小于该值(像素/秒)时认为静止
+    private static final long MAX_DURATION = 4000;              // 最长运动时间(毫秒)
+
+    private double mNaturalFreq;                                // 固有频率 ω
+    private double mDampingRatio;                               // 阻尼比 ζ
+
+    private double mTarget;                                     // 目标位置
+    private double mStartDisplacement;                          // 初始位移(相对目标)
+    private double mStartVelocity;                              // 初始速度(像素/秒)
+    private long mDuration;                                     // 运动到静止的时间(毫秒)
+
+    /**
+     * 使用默认参数创建弹簧
+     */
+    public PagerSpring() {
+        this(STIFFNESS_MEDIUM, DAMPING_RATIO_NO_BOUNCY);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param stiffness    刚度，越大越快
+     * @param dampingRatio 阻尼比，小于 1 时会在目标附近来回摆动
+     */
+    public PagerSpring(float stiffness, float dampingRatio) {
+        setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * 设置弹簧参数，下一次 {@link #start(double, double, double)} 时生效
+     *
+     * @param stiffness    刚度，越大越快
+     * @param dampingRatio 阻尼比，小于 1 时会在目标附近来回摆动
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio <= 0) {
+            throw new IllegalArgumentException("stiffness and dampingRatio must be positive");
+        }
+        mNaturalFreq = Math.sqrt(stiffness);
+        mDampingRatio = dampingRatio;
+    }
+
+    /**
+     * 开始运动
+     * 阻尼比不小于 1 时，朝向目标的初始速度超过 ω * 距离 会越过目标，此时将初始速度限制为 ω * 距离，
+     * 保证停在目标页面而不会露出后面的页面
+     *
+     * @param from     起始位置
+     * @param to       目标位置
+     * @param velocity 初始速度(像素/秒)
+     */
+    public void start(double from, double to, double velocity) {
+        mTarget = to;
+        mStartDisplacement = from - to;
+        if (mDampingRatio >= 1) {
+            double limit = mNaturalFreq * Math.abs(mStartDisplacement);
+            if (velocity * mStartDisplacement < 0 && Math.abs(velocity) > limit) {
+                velocity = velocity > 0 ? limit : -limit;
+            }
+        }
+        mStartVelocity = velocity;
+        mDuration = computeDuration();
+    }
+
+    /**
+     * 运动过程中更换目标，以 time 时刻的位置和速度作为新的初始状态
+     *
+     * @param time 距离上次开始的时间(毫秒)
+     * @param to   新的目标位置
+     */
+    public void retarget(long time, double to) {
+        double position = getPosition(time);
+        double velocity = getVelocity(time);
+        start(position, to, velocity);
+    }
+
+    /**
+     * 获取运动到静止需要的时间
+     *
+     * @return 时间(毫秒)
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    public double getTarget() {
+        return mTarget;
+    }
+
+    /**
+     * 获取位置，到达静止时间后返回精确的目标位置
+     *
+     * @param time 距离开始的时间(毫秒)
+     * @return 位置
+     */
+    public double getPosition(long time) {
+        if (time >= mDuration) return mTarget;
+        return mTarget + displacement(time / 1000.0);
+    }
+
+    /**
+     * 获取速度
+     *
+     * @param time 距离开始的时间(毫秒)
+     * @return 速度(像素/秒)，到达静止时间后为 0
+     */
+    public double getVelocity(long time) {
+        if (time >= mDuration) return 0;
+        return velocity(time / 1000.0);
+    }
+
+    /**
+     * 获取运动进度，用于插值器
+     *
+     * @param fraction 时间比例 [0, 1]
+     * @return 已经移动的距离占总距离的比例，结束时精确为 1，欠阻尼时中间可能超过 1
+     */
+    public float getProgress(float fraction) {
+        if (fraction >= 1 || mStartDisplacement == 0) return 1f;
+        double x = displacement(fraction * mDuration / 1000.0);
+        return (float) (1 - x / mStartDisplacement);
+    }
+
+    //--- 解析解 -----------------------------------------------------------------------------------
+
+    /**
+     * 计算 t 秒时相对目标的位移
+     */
+    private double displacement(double t) {
+        double w = mNaturalFreq;
+        double z = mDampingRatio;
+        double x0 = mStartDisplacement;
+        double v0 = mStartVelocity;
+        if (z < 1) {
+            double wd = w * Math.sqrt(1 - z * z);
+            double b = (v0 + z * w * x0) / wd;
+            return Math.exp(-z * w * t) * (x0 * Math.cos(wd * t) + b * Math.sin(wd * t));
+        } else if (z == 1) {
+            double c = v0 + w * x0;
+            return Math.exp(-w * t) * (x0 + c * t);
+        } else {
+            double s = w * Math.sqrt(z * z - 1);
+            double r1 = -z * w + s;
+            double r2 = -z * w - s;
+            double c2 = (v0 - r1 * x0) / (r2 - r1);
+            double c1 = x0 - c2;
+            return c1 * Math.exp(r1 * t) + c2 * Math.exp(r2 * t);
+        }
+    }
+
+    /**
+     * 计算 t 秒时的速度
+     */
+    private double velocity(double t) {
+        double w = mNaturalFreq;
+        double z = mDampingRatio;
+        double x0 = mStartDisplacement;
+        double v0 = mStartVelocity;
+        if (z < 1) {
+            double a = z * w;
+            double wd = w * Math.sqrt(1 - z * z);
+            double b = (v0 + a * x0) / wd;
+            return Math.exp(-a * t) * ((b * wd - a * x0) * Math.cos(wd * t)
+                    - (a * b + x0 * wd) * Math.sin(wd * t));
+        } else if (z == 1) {
+            double c = v0 + w * x0;
+            return Math.exp(-w * t) * (c - w * (x0 + c * t));
+        } else {
+            double s = w * Math.sqrt(z * z - 1);
+            double r1 = -z * w + s;
+            double r2 = -z * w - s;
+            double c2 = (v0 - r1 * x0) / (r2 - r1);
+            double c1 = x0 - c2;
+            return c1 * r1 * Math.exp(r1 * t) + c2 * r2 * Math.exp(r2 * t);
+        }
+    }
+
+    /**
+     * 计算运动到静止的时间，此时位移和速度都低于阀值，只在开始运动时计算一次
+     */
+    private long computeDuration() {
+        if (Math.abs(mStartDisplacement) < REST_DISPLACEMENT
+                && Math.abs(mStartVelocity) < REST_VELOCITY) {
+            return 0;
+        }
+        // 先以 16 毫秒为步长找到第一个静止的时刻，再以 1 毫秒为步长精确查找
+        long time = 0;
+        while (time < MAX_DURATION && !isAtRest(time)) {
+            time += 16;
+        }
+        long lower = Math.max(time - 16, 0);
+        while (lower < time && !isAtRest(lower)) {
+            lower++;
+        }
+        return Math.min(lower, MAX_DURATION);
+    }
+
+    private boolean isAtRest(long time) {
+        double t = time / 1000.0;
+        return Math.abs(displacement(t)) < REST_DISPLACEMENT
+                && Math.abs(velocity(t)) < REST_VELOCITY;
+    }
+}
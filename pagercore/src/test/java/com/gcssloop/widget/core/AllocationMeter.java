@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 作用：统计代码在当前线程分配的内存
+ * 作者：GcsSloop
+ * 摘要：
+ * 1. 使用 HotSpot 的 com.sun.management.ThreadMXBean 读取线程累计分配的字节数，
+ *    其他虚拟机不支持时 {@link #isSupported()} 返回 false
+ * 2. 先执行同样次数进行预热，排除类加载和首次调用产生的分配，
+ *    再减去空循环的测量误差(读取计数本身可能分配少量内存)
+ */
+final class AllocationMeter {
+    private static final Runnable EMPTY = new Runnable() {
+        @Override public void run() {
+        }
+    };
+
+    private AllocationMeter() {
+    }
+
+    static boolean isSupported() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * 统计重复执行任务分配的内存
+     *
+     * @param task       任务
+     * @param iterations 执行次数
+     * @return 分配的字节数
+     */
+    static long allocatedBytes(Runnable task, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long overhead = measure(EMPTY, iterations);
+        return Math.max(measure(task, iterations) - overhead, 0);
+    }
+
+    private static long measure(Runnable task, int iterations) {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long start = bean.getThreadAllocatedBytes(id);
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return bean.getThreadAllocatedBytes(id) - start;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 作用：PagerGeometry 单元测试
+ * 作者：GcsSloop
+ * 摘要：与逐个条目判断矩形相交的结果进行对比
+ */
+public class PagerGeometryTest {
+
+    private static final int[][] GRIDS = {{1, 1}, {2, 3}, {3, 2}, {5, 8}, {4, 7}};
+    private static final int[][] PAGE_SIZES = {{1080, 600}, {1081, 607}, {7, 5}};
+
+    @Test
+    public void pageCount() {
+        PagerGeometry geometry = new PagerGeometry(2, 3);
+        geometry.setItemCount(0);
+        assertEquals(0, geometry.getPageCount());
+        geometry.setItemCount(6);
+        assertEquals(1, geometry.getPageCount());
+        geometry.setItemCount(7);
+        assertEquals(2, geometry.getPageCount());
+    }
+
+    @Test
+    public void itemFrame() {
+        PagerGeometry geometry = new PagerGeometry(2, 3);
+        geometry.setPageSize(300, 200);
+        geometry.setItemCount(100);
+
+        geometry.setOrientation(PagerGeometry.HORIZONTAL);
+        assertEquals(300 + 200, geometry.getItemLeft(6 + 5));
+        assertEquals(100, geometry.getItemTop(6 + 5));
+
+        geometry.setOrientation(PagerGeometry.VERTICAL);
+        assertEquals(200, geometry.getItemLeft(6 + 5));
+        assertEquals(200 + 100, geometry.getItemTop(6 + 5));
+    }
+
+    @Test
+    public void pageIndexByOffset() {
+        PagerGeometry geometry = new PagerGeometry(2, 3);
+        geometry.setPageSize(300, 200);
+        geometry.setItemCount(100);
+        assertEquals(0, geometry.getPageIndexByOffset(150));
+        assertEquals(1, geometry.getPageIndexByOffset(151));
+        assertEquals(3, geometry.getPageIndexByOffset(900));
+    }
+
+    @Test
+    public void hugeItemCountDoesNotOverflow() {
+        // 4 亿个条目，每页 6 个，页面宽度 2560，最大滚动距离远超 int 范围
+        PagerGeometry geometry = new PagerGeometry(2, 3);
+        geometry.setOrientation(PagerGeometry.HORIZONTAL);
+        geometry.setPageSize(2560, 1600);
+        geometry.setItemCount(400000000);
+        int lastPage = geometry.getPageCount() - 1;
+        long lastStart = (long) lastPage * 2560;
+        assertEquals(lastStart, geometry.getMaxScroll());
+        assertEquals(lastStart, geometry.getPageStart(lastPage));
+        assertEquals(lastPage, geometry.getPageIndexByOffset(lastStart));
+        assertEquals(lastPage, geometry.getPageIndexByOffset(lastStart - 1279));
+
+        int lastPos = geometry.getItemCount() - 1;
+        int lastLine = geometry.getLineByPosition(lastPos);
+        assertEquals(lastStart, geometry.getItemLeft(lastPos));   // 最后一页只有 4 个条目，在第一列
+        assertEquals(geometry.getItemLeft(lastPos), geometry.getLineStart(lastLine));
+        assertEquals(lastPage * 3, geometry.getFirstLineByOffset(lastStart));
+        assertEquals(geometry.getMaxLine(), geometry.getLastLineByOffset(lastStart + 2560));
+    }
+
+    @Test
+    public void lineAndPositionRoundTrip() {
+        for (int[] grid : GRIDS) {
+            for (int orientation = 0; orientation <= 1; orientation++) {
+                PagerGeometry geometry = new PagerGeometry(grid[0], grid[1]);
+                geometry.setOrientation(orientation);
+                geometry.setPageSize(1080, 600);
+                geometry.setItemCount(grid[0] * grid[1] * 5);
+                for (int pos = 0; pos < geometry.getItemCount(); pos++) {
+                    int line = geometry.getLineByPosition(pos);
+                    boolean found = false;
+                    for (int i = 0; i < geometry.getItemsPerLine(); i++) {
+                        if (geometry.getPositionByLine(line, i) == pos) found = true;
+                    }
+                    assertEquals(true, found);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void displayLinesMatchRectIntersection() {
+        for (int[] grid : GRIDS) {
+            for (int[] size : PAGE_SIZES) {
+                for (int orientation = 0; orientation <= 1; orientation++) {
+                    checkDisplayLines(grid[0], grid[1], size[0], size[1], orientation);
+                }
+            }
+        }
+    }
+
+    private void checkDisplayLines(int rows, int columns, int width, int height,
+                                   int orientation) {
+        PagerGeometry geometry = new PagerGeometry(rows, columns);
+        geometry.setOrientation(orientation);
+        geometry.setPageSize(width, height);
+        geometry.setItemCount(rows * columns * 4 - 1);
+        if (!geometry.isValid()) return;
+        boolean horizontal = orientation == PagerGeometry.HORIZONTAL;
+        int pageLength = geometry.getPageLength();
+        int itemLength = geometry.getLineLength();
+        long maxEnd = geometry.getMaxScroll() + pageLength;
+        for (long offset = 0; offset <= geometry.getMaxScroll(); offset += Math.max(1, pageLength / 37)) {
+            long start = offset - itemLength;
+            long end = Math.min(offset + pageLength + itemLength, maxEnd);
+            int first = geometry.getFirstLineByOffset(start);
+            int last = geometry.getLastLineByOffset(end);
+            for (int pos = 0; pos < geometry.getItemCount(); pos++) {
+                long itemStart = horizontal ? geometry.getItemLeft(pos) : geometry.getItemTop(pos);
+                boolean intersects = itemStart < end && itemStart + itemLength > Math.max(start, 0);
+                int line = geometry.getLineByPosition(pos);
+                assertEquals("pos " + pos + " offset " + offset,
+                             intersects, line >= first && line <= last);
+            }
+        }
+    }
+
+    @Test
+    public void scrollPathDoesNotAllocate() {
+        assumeTrue(AllocationMeter.isSupported());
+        final PagerGeometry geometry = new PagerGeometry(4, 6);
+        geometry.setPageSize(1080, 1920);
+        geometry.setItemCount(400000000);
+        final long maxScroll = geometry.getMaxScroll();
+        final long[] state = {0, 0};        // 偏移量、计算结果
+        long bytes = AllocationMeter.allocatedBytes(new Runnable() {
+            @Override public void run() {
+                // 滚动一帧需要的计算：显示范围、行(列)起点、条目位置和目标页面
+                long offset = state[0] = (state[0] + 977) % maxScroll;
+                int first = geometry.getFirstLineByOffset(offset);
+                int last = geometry.getLastLineByOffset(offset + geometry.getPageLength());
+                int pos = geometry.getPositionByLine(last, 0);
+                state[1] += first + geometry.getLineStart(last) + geometry.getItemLeft(pos)
+                        + geometry.getItemTop(pos) + geometry.getPageIndexByOffset(offset);
+            }
+        }, 100000);
+        assertTrue(state[1] != 0);
+        assertTrue("allocated " + bytes + " bytes", bytes < 1024);
+    }
+}
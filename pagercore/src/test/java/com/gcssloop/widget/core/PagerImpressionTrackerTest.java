@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 作用：PagerImpressionTracker 单元测试
+ * 作者：GcsSloop
+ * 摘要：2 行 3 列水平滚动，页面 1080x600，使用模拟时钟按帧推进偏移量，验证曝光条件和批量回调
+ */
+public class PagerImpressionTrackerTest {
+    private static final int PAGE = 1080;
+    private static final int COLUMN = PAGE / 3;
+    private static final long DWELL = 1000;
+    private static final long FRAME = 16;
+
+    private final List<Integer> mPositions = new ArrayList<>();
+    private final List<Long> mDwells = new ArrayList<>();
+    private int mBatches = 0;
+
+    private PagerImpressionTracker create(int orientation, int itemCount) {
+        PagerGeometry geometry = new PagerGeometry(2, 3);
+        geometry.setOrientation(orientation);
+        geometry.setPageSize(PAGE, 600);
+        geometry.setItemCount(itemCount);
+        PagerImpressionTracker tracker = new PagerImpressionTracker(geometry);
+        tracker.setThreshold(0.5f, DWELL);
+        tracker.setListener(new PagerImpressionTracker.Listener() {
+            @Override
+            public void onImpressions(int[] positions, long[] dwellMillis, int count) {
+                mBatches++;
+                for (int i = 0; i < count; i++) {
+                    mPositions.add(positions[i]);
+                    mDwells.add(dwellMillis[i]);
+                }
+            }
+        });
+        return tracker;
+    }
+
+    private List<Integer> sortedPositions() {
+        List<Integer> positions = new ArrayList<>(mPositions);
+        Collections.sort(positions);
+        return positions;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void impressionAfterDwell() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        tracker.update(0, 0);
+        assertEquals(DWELL, tracker.flush(0));
+        assertEquals(1, tracker.flush(DWELL - 1));
+        assertTrue(mPositions.isEmpty());
+
+        assertEquals(-1, tracker.flush(DWELL));
+        assertEquals(1, mBatches);
+        assertEquals(range(0, 5), sortedPositions());
+        for (long dwell : mDwells) {
+            assertEquals(DWELL, dwell);
+        }
+
+        // 持续显示不会重复曝光
+        tracker.flush(DWELL * 3);
+        assertEquals(6, mPositions.size());
+    }
+
+    @Test
+    public void partiallyVisibleColumns() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        // 第 0 列只显示 160 像素(不足一半)，第 3 列(第 1 页第 0 列)显示 200 像素
+        tracker.update(200, 0);
+        tracker.flush(DWELL);
+        List<Integer> expected = new ArrayList<>();
+        Collections.addAll(expected, 1, 2, 4, 5, 6, 9);
+        assertEquals(expected, sortedPositions());
+    }
+
+    @Test
+    public void fastScrollProducesNoImpressions() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        long now = 0;
+        // 每帧滚动 100 像素，滑过 5 页，途中的条目显示时间都不足
+        for (long offset = 0; offset <= 5 * PAGE; offset += 100) {
+            tracker.update(offset, now);
+            now += FRAME;
+        }
+        tracker.update(5 * PAGE, now);
+        // 第 5 页在滚动的最后几帧已经开始显示，等待时间少于 DWELL
+        long delay = tracker.flush(now);
+        assertTrue(delay > 0 && delay < DWELL);
+        assertTrue(mPositions.isEmpty());
+
+        tracker.flush(now + DWELL);
+        assertEquals(range(30, 35), sortedPositions());
+    }
+
+    @Test
+    public void leavingAfterDwellStillCounts() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        tracker.update(0, 0);
+        // 没有调用 flush，显示足够时间后离开
+        tracker.update(2 * PAGE, 1500);
+        assertTrue(mPositions.isEmpty());
+        tracker.flush(1500);
+        assertEquals(range(0, 5), sortedPositions());
+        assertEquals(Long.valueOf(1500), mDwells.get(0));
+    }
+
+    @Test
+    public void reappearingCountsAgain() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        tracker.update(0, 0);
+        tracker.flush(DWELL);
+        tracker.update(PAGE, DWELL + FRAME);
+        tracker.update(0, 2 * DWELL);
+        tracker.flush(3 * DWELL);
+        // 第 0 页曝光两次，第 1 页显示时间不足
+        List<Integer> expected = new ArrayList<>();
+        for (int pos = 0; pos < 6; pos++) {
+            Collections.addAll(expected, pos, pos);
+        }
+        assertEquals(expected, sortedPositions());
+    }
+
+    @Test
+    public void lastPageOnlyTracksExistingItems() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 58);
+        tracker.update(9 * PAGE, 0);
+        tracker.flush(DWELL);
+        assertEquals(range(54, 57), sortedPositions());
+    }
+
+    @Test
+    public void verticalRows() {
+        PagerImpressionTracker tracker = create(PagerGeometry.VERTICAL, 60);
+        // 每行 300 像素，偏移 400 时第 1 行显示 200 像素，第 2 行(第 1 页第 0 行)完整显示，第 3 行只显示 100 像素
+        tracker.update(400, 0);
+        tracker.flush(DWELL);
+        assertEquals(range(3, 8), sortedPositions());
+    }
+
+    @Test
+    public void resetDropsPendingAndRestartsDwell() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        tracker.update(0, 0);
+        tracker.update(0, DWELL);
+        tracker.reset();
+        tracker.flush(DWELL);
+        assertTrue(mPositions.isEmpty());
+        tracker.update(0, DWELL);
+        tracker.flush(2 * DWELL);
+        assertEquals(range(0, 5), sortedPositions());
+    }
+
+    @Test
+    public void hideAllReportsQualifiedItems() {
+        PagerImpressionTracker tracker = create(PagerGeometry.HORIZONTAL, 60);
+        tracker.update(0, 0);
+        tracker.hideAll(DWELL);
+        assertEquals(range(0, 5), sortedPositions());
+        assertEquals(-1, tracker.flush(3 * DWELL));
+    }
+
+    @Test
+    public void scrollPathDoesNotAllocate() {
+        assumeTrue(AllocationMeter.isSupported());
+        PagerGeometry geometry = new PagerGeometry(4, 6);
+        geometry.setPageSize(PAGE, 600);
+        geometry.setItemCount(1000000);
+        final PagerImpressionTracker tracker = new PagerImpressionTracker(geometry);
+        tracker.setThreshold(0.5f, 2 * FRAME);
+        final int[] impressions = {0};
+        tracker.setListener(new PagerImpressionTracker.Listener() {
+            @Override
+            public void onImpressions(int[] positions, long[] dwellMillis, int count) {
+                impressions[0] += count;
+            }
+        });
+        final long maxScroll = geometry.getMaxScroll();
+        final long[] clock = {0, 0};        // 时间、偏移量
+        long bytes = AllocationMeter.allocatedBytes(new Runnable() {
+            @Override public void run() {
+                // 慢速滚动，条目会显示足够的时间，每隔几帧停止一次并批量回调
+                clock[0] += FRAME;
+                clock[1] = (clock[1] + 37) % maxScroll;
+                tracker.update(clock[1], clock[0]);
+                if (clock[0] % (FRAME * 8) == 0) {
+                    tracker.flush(clock[0]);
+                }
+            }
+        }, 100000);
+        assertTrue(impressions[0] > 0);
+        assertTrue("allocated " + bytes + " bytes", bytes < 1024);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 作用：PagerSpring 单元测试
+ * 作者：GcsSloop
+ * 摘要：使用模拟时钟按帧推进，统计一组常见 fling 速度下的对齐时间和帧数
+ */
+public class PagerSpringTest {
+    private static final int PAGE = 1080;
+    private static final int[] VELOCITIES = {0, 1000, 3000, 8000, 20000, -3000};
+    private static final long[] FRAME_TIMES = {16, 8};      // 60Hz 和 120Hz
+
+    /**
+     * 模拟时钟，每次推进一帧
+     */
+    private static class FakeClock {
+        private final long mFrameTime;
+        long mTime = 0;
+        int mFrames = 0;
+
+        FakeClock(long frameTime) {
+            mFrameTime = frameTime;
+        }
+
+        void nextFrame() {
+            mTime += mFrameTime;
+            mFrames++;
+        }
+    }
+
+    @Test
+    public void settlesExactlyOnPageBoundary() {
+        for (long frameTime : FRAME_TIMES) {
+            for (int velocity : VELOCITIES) {
+                PagerSpring spring = new PagerSpring();
+                // 从页面中间开始，向下一页对齐
+                spring.start(PAGE / 3, PAGE, velocity);
+                FakeClock clock = new FakeClock(frameTime);
+                double max = 0;
+                while (clock.mTime < spring.getDuration()) {
+                    clock.nextFrame();
+                    max = Math.max(max, spring.getPosition(clock.mTime));
+                }
+                String name = "velocity " + velocity + " frame " + frameTime;
+                assertEquals(name, PAGE, spring.getPosition(clock.mTime), 0);
+                assertEquals(name, 0, spring.getVelocity(clock.mTime), 0);
+                assertEquals(name, 1f, spring.getProgress(1f), 0);
+                // 临界阻尼不会越过目标页面
+                assertTrue(name + " max " + max, max <= PAGE + 0.5);
+                assertTrue(name + " duration " + spring.getDuration(),
+                           spring.getDuration() <= 800);
+                assertTrue(name + " frames " + clock.mFrames,
+                           clock.mFrames <= 800 / frameTime + 1);
+            }
+        }
+    }
+
+    @Test
+    public void fasterFlingDoesNotSettleSlower() {
+        PagerSpring slow = new PagerSpring();
+        slow.start(0, PAGE, 1000);
+        PagerSpring fast = new PagerSpring();
+        fast.start(0, PAGE, 8000);
+        assertTrue(fast.getDuration() <= slow.getDuration());
+    }
+
+    @Test
+    public void retargetKeepsPositionAndVelocityContinuous() {
+        PagerSpring spring = new PagerSpring();
+        spring.start(0, PAGE, 3000);
+        long time = spring.getDuration() / 3;
+        double position = spring.getPosition(time);
+        double velocity = spring.getVelocity(time);
+
+        // 运动过程中目标改为下一页
+        spring.retarget(time, 2 * PAGE);
+        assertEquals(position, spring.getPosition(0), 0.001);
+        assertEquals(velocity, spring.getVelocity(0), 0.001);
+        assertEquals(2 * PAGE, spring.getPosition(spring.getDuration()), 0);
+    }
+
+    @Test
+    public void underdampedSpringStillEndsOnTarget() {
+        PagerSpring spring = new PagerSpring(400f, 0.5f);
+        spring.start(0, PAGE, 8000);
+        assertTrue(spring.getDuration() < 4000);
+        assertEquals(PAGE, spring.getPosition(spring.getDuration()), 0);
+        assertEquals(1f, spring.getProgress(1f), 0);
+    }
+}
@@ -25,10 +25,11 @@ package com.gcssloop.widget;
 /**
  * 作用：Pager配置
  * 作者：GcsSloop_
- * 摘要：主要用于Log的显示与关闭
+ * 摘要：主要用于Log和Trace的显示与关闭
  */
 public class PagerConfig {
     private static boolean sShowLog = false;
+    private static boolean sTraceEnabled = false;
 
     /**
      * 判断是否输出日志
@@ -47,4 +48,22 @@ public class PagerConfig {
     public static void setShowLog(boolean showLog) {
         sShowLog = showLog;
     }
+
+    /**
+     * 判断是否输出 Trace(systrace/perfetto 中的布局和滚动区间)
+     *
+     * @return true 输出，false 不输出
+     */
+    public static boolean isTraceEnabled() {
+        return sTraceEnabled;
+    }
+
+    /**
+     * 设置是否输出 Trace
+     *
+     * @param traceEnabled 是否输出
+     */
+    public static void setTraceEnabled(boolean traceEnabled) {
+        sTraceEnabled = traceEnabled;
+    }
 }
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget;
+
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 作用：按页加载的数据源
+ * 作者：GcsSloop
+ * 摘要：
+ * 1. 通过 {@link PagerGridLayoutManager#addPageLifecycleListener} 绑定后，由布局管理器驱动：
+ *    页面即将显示时开始加载，离开后取消尚未完成的加载
+ * 2. 已加载的页面按页码保存在 SparseArray 中，并记录最近访问的序号，超出容量时淘汰最久未使用且
+ *    不在显示范围内的页面；页码都是基本类型，读取条目时不会装箱
+ * 3. 每次加载都有独立的编号，取消或失效后同一页重新加载时，旧请求迟到的结果会被忽略
+ * 4. 页面加载完成前 {@link #getItem(int)} 返回 null，Adapter 显示占位内容，加载完成后通过
+ *    {@link OnPageLoadedListener} 通知 Adapter 刷新该页
+ * 5. 除后台加载外，所有方法和回调都在 callbackExecutor 所在的线程(通常是主线程)执行
+ *
+ * @param <T> 条目数据类型
+ */
+public class PagerDataLoader<T> implements PagerGridLayoutManager.PageLifecycleListener {
+
+    private final Backend<T> mBackend;
+    private final int mPageSize;
+    private final int mMaxPages;
+    private final Executor mCallbackExecutor;
+
+    private final SparseArray<Page<T>> mPages = new SparseArray<>();        // 已经加载的页面
+    private final SparseIntArray mLoading = new SparseIntArray();           // 正在加载的页面 -> 请求编号
+    private final SparseBooleanArray mWanted = new SparseBooleanArray();    // 即将显示或正在显示的页面，不会被淘汰
+    private int mNextRequestId = 1;                 // 下一次加载的请求编号
+    private long mAccessClock = 0;                  // 访问序号，越大表示越近使用
+
+    private OnPageLoadedListener mOnPageLoadedListener = null;
+
+    /**
+     * 构造函数，按布局管理器的每页条目数量分页，并添加为它的页面生命周期监听，
+     * 不再使用时通过 {@link PagerGridLayoutManager#removePageLifecycleListener} 移除
+     *
+     * @param manager          布局管理器
+     * @param backend          数据后端
+     * @param maxPages         最多保存的页面数量
+     * @param callbackExecutor 加载结果回调的线程，通常是主线程
+     */
+    public PagerDataLoader(PagerGridLayoutManager manager, Backend<T> backend, int maxPages,
+                           Executor callbackExecutor) {
+        this(backend, manager.getOnePageSize(), maxPages, callbackExecutor);
+        manager.addPageLifecycleListener(this);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param backend          数据后端
+     * @param pageSize         每页条目数量，与 {@link PagerGridLayoutManager#getOnePageSize()} 相同
+     * @param maxPages         最多保存的页面数量
+     * @param callbackExecutor 加载结果回调的线程，通常是主线程
+     */
+    public PagerDataLoader(Backend<T> backend, int pageSize, int maxPages,
+                           Executor callbackExecutor) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("pageSize and maxPages must be positive");
+        }
+        mBackend = backend;
+        mPageSize = pageSize;
+        mMaxPages = maxPages;
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    public void setOnPageLoadedListener(OnPageLoadedListener listener) {
+        mOnPageLoadedListener = listener;
+    }
+
+    /**
+     * 获取条目数据
+     *
+     * @param position 条目下标
+     * @return 条目数据，所在页面尚未加载时返回 null，此时应显示占位内容
+     */
+    public T getItem(int position) {
+        int page = position / mPageSize;
+        Page<T> entry = mPages.get(page);
+        if (entry == null) {
+            load(page);     // 没有经过预判直接绑定(例如跳转页面)，立即加载
+            return null;
+        }
+        entry.mLastAccess = ++mAccessClock;
+        int index = position - page * mPageSize;
+        return index < entry.mItems.size() ? entry.mItems.get(index) : null;
+    }
+
+    /**
+     * 判断页面是否已经加载
+     *
+     * @param page 页码
+     * @return true 已经加载
+     */
+    public boolean isPageLoaded(int page) {
+        return mPages.get(page) != null;
+    }
+
+    /**
+     * 获取已经加载的页面数量
+     *
+     * @return 页面数量
+     */
+    public int getLoadedPageCount() {
+        return mPages.size();
+    }
+
+    /**
+     * 数据失效(例如刷新)，清除所有页面，正在进行的加载结果会被忽略
+     */
+    public void invalidate() {
+        for (int i = 0; i < mLoading.size(); i++) {
+            mBackend.cancelPage(mLoading.keyAt(i));
+        }
+        mLoading.clear();
+        mPages.clear();
+    }
+
+    //--- 页面生命周期 --------------------------------------------------------------------------------
+
+    @Override public void onPageWillAppear(int pageIndex, int firstPos, int lastPos) {
+        mWanted.put(pageIndex, true);
+        load(pageIndex);
+    }
+
+    @Override public void onPageAppeared(int pageIndex, int firstPos, int lastPos) {
+        mWanted.put(pageIndex, true);
+        load(pageIndex);
+    }
+
+    @Override public void onPageDisappeared(int pageIndex, int firstPos, int lastPos) {
+        mWanted.delete(pageIndex);
+        if (mLoading.get(pageIndex, 0) != 0) {
+            mLoading.delete(pageIndex);
+            mBackend.cancelPage(pageIndex);
+        }
+    }
+
+    //--- 加载 -------------------------------------------------------------------------------------
+
+    /**
+     * 加载页面，已经加载或正在加载时忽略
+     *
+     * @param page 页码
+     */
+    private void load(int page) {
+        if (page < 0 || mPages.get(page) != null || mLoading.get(page, 0) != 0) {
+            return;
+        }
+        int requestId = mNextRequestId++;
+        if (mNextRequestId == 0) mNextRequestId = 1;    // 0 表示没有加载
+        mLoading.put(page, requestId);
+        mBackend.loadPage(page, page * mPageSize, mPageSize, new PageCallback(page, requestId));
+    }
+
+    /**
+     * 判断加载结果是否属于该页面当前的请求
+     *
+     * @return false 表示请求已经取消、失效或被新的请求替代
+     */
+    private boolean isCurrentRequest(int page, int requestId) {
+        return mLoading.get(page, 0) == requestId;
+    }
+
+    /**
+     * 在回调线程处理加载结果
+     */
+    private void onLoaded(int page, int requestId, List<T> items) {
+        if (!isCurrentRequest(page, requestId)) {
+            return;
+        }
+        mLoading.delete(page);
+        Page<T> entry = new Page<>(items);
+        entry.mLastAccess = ++mAccessClock;
+        mPages.put(page, entry);
+        trimToSize();
+        if (mOnPageLoadedListener != null && !items.isEmpty()) {
+            int firstPos = page * mPageSize;
+            mOnPageLoadedListener.onPageLoaded(page, firstPos, firstPos + items.size() - 1);
+        }
+    }
+
+    /**
+     * 在回调线程处理加载失败，页面再次需要时会重新加载
+     */
+    private void onFailed(int page, int requestId) {
+        if (isCurrentRequest(page, requestId)) {
+            mLoading.delete(page);
+        }
+    }
+
+    /**
+     * 淘汰最久未使用且不在显示范围内的页面，直到不超过容量
+     * 页面数量和容量同一量级，直接遍历查找即可
+     */
+    private void trimToSize() {
+        while (mPages.size() > mMaxPages) {
+            int eldest = -1;
+            for (int i = 0; i < mPages.size(); i++) {
+                if (mWanted.get(mPages.keyAt(i))) continue;
+                if (eldest < 0 || mPages.valueAt(i).mLastAccess
+                        < mPages.valueAt(eldest).mLastAccess) {
+                    eldest = i;
+                }
+            }
+            if (eldest < 0) return;     // 剩余页面都在显示中
+            mPages.removeAt(eldest);
+        }
+    }
+
+    /**
+     * 已经加载的页面
+     */
+    private static class Page<T> {
+        final List<T> mItems;
+        long mLastAccess;           // 最近访问的序号
+
+        Page(List<T> items) {
+            mItems = items;
+        }
+    }
+
+    /**
+     * 单次加载的回调，切换到回调线程后再修改状态
+     */
+    private class PageCallback implements Callback<T> {
+        private final int mPage;
+        private final int mRequestId;
+
+        PageCallback(int page, int requestId) {
+            mPage = page;
+            mRequestId = requestId;
+        }
+
+        @Override public void onPageLoaded(final List<T> items) {
+            mCallbackExecutor.execute(new Runnable() {
+                @Override public void run() {
+                    onLoaded(mPage, mRequestId, items);
+                }
+            });
+        }
+
+        @Override public void onPageFailed(Throwable error) {
+            mCallbackExecutor.execute(new Runnable() {
+                @Override public void run() {
+                    onFailed(mPage, mRequestId);
+                }
+            });
+        }
+    }
+
+    //--- 对外接口 ----------------------------------------------------------------------------------
+
+    /**
+     * 数据后端，负责实际的加载(例如网络请求或数据库查询)，可以在任意线程回调
+     *
+     * @param <T> 条目数据类型
+     */
+    public interface Backend<T> {
+        /**
+         * 加载一页数据
+         *
+         * @param pageIndex 页码
+         * @param firstPos  第一个条目的下标
+         * @param count     条目数量，最后一页可以返回更少的条目
+         * @param callback  加载结果回调
+         */
+        void loadPage(int pageIndex, int firstPos, int count, Callback<T> callback);
+
+        /**
+         * 页面已经不再需要，可以取消尚未完成的加载，取消后不需要回调
+         *
+         * @param pageIndex 页码
+         */
+        void cancelPage(int pageIndex);
+    }
+
+    /**
+     * 加载结果回调
+     *
+     * @param <T> 条目数据类型
+     */
+    public interface Callback<T> {
+        void onPageLoaded(List<T> items);
+
+        void onPageFailed(Throwable error);
+    }
+
+    /**
+     * 页面加载完成监听，通常在这里调用 Adapter 的 notifyItemRangeChanged
+     */
+    public interface OnPageLoadedListener {
+        void onPageLoaded(int pageIndex, int firstPos, int lastPos);
+    }
+}
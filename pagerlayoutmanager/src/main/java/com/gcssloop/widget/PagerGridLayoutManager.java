@@ -22,18 +22,40 @@
 
 package com.gcssloop.widget;
 
+import android.content.Context;
 import android.graphics.PointF;
 import android.graphics.Rect;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.DisplayMetrics;
 import android.util.Log;
-import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.view.animation.AnimationUtils;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.IntRange;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.LinearSmoothScroller;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.gcssloop.widget.core.PagerGeometry;
+import com.gcssloop.widget.core.PagerImpressionTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import static androidx.recyclerview.widget.RecyclerView.SCROLL_STATE_IDLE;
+import static androidx.recyclerview.widget.RecyclerView.SCROLL_STATE_SETTLING;
 
 
 /**
@@ -43,6 +65,7 @@ import static androidx.recyclerview.widget.RecyclerView.SCROLL_STATE_IDLE;
  * 1. 网格布局
  * 2. 支持水平分页和垂直分页
  * 3. 杜绝高内存占用
+ * 4. 偏移量使用 long 记录，条目数量达到数亿时也能正确分页，交给 RecyclerView 的滚动距离仍然是 int
  */
 public class PagerGridLayoutManager extends RecyclerView.LayoutManager
         implements RecyclerView.SmoothScroller.ScrollVectorProvider {
@@ -57,25 +80,34 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     @OrientationType
     private int mOrientation = HORIZONTAL;          // 默认水平滚动
 
-    private int mOffsetX = 0;                       // 水平滚动距离(偏移量)
-    private int mOffsetY = 0;                       // 垂直滚动距离(偏移量)
+    private long mOffsetX = 0;                      // 水平滚动距离(偏移量)
+    private long mOffsetY = 0;                      // 垂直滚动距离(偏移量)
 
     private int mRows = 0;                          // 行数
     private int mColumns = 0;                       // 列数
     private int mOnePageSize = 0;                   // 一页的条目数量
 
-    private SparseArray<Rect> mItemFrames;          // 条目的显示区域
+    private final Rect mItemFrame = new Rect();     // 条目相对于当前显示区域的位置(复用)
 
-    private int mItemWidth = 0;                     // 条目宽度
-    private int mItemHeight = 0;                    // 条目高度
+    private final PagerGeometry mGeometry;          // 分页网格的几何计算
+
+    private int mLastUsableWidth = 0;               // 上次布局时的可用宽度
+    private int mLastUsableHeight = 0;              // 上次布局时的可用高度
 
     private int mWidthUsed = 0;                     // 已经使用空间，用于测量View
     private int mHeightUsed = 0;                    // 已经使用空间，用于测量View
 
-    private int mMaxScrollX;                        // 最大允许滑动的宽度
-    private int mMaxScrollY;                        // 最大允许滑动的高度
+    private long mMaxScrollX;                       // 最大允许滑动的宽度
+    private long mMaxScrollY;                       // 最大允许滑动的高度
     private int mScrollState = SCROLL_STATE_IDLE;   // 滚动状态
 
+    private int mFirstLine = -1;                    // 已填充的第一个行(列)序号
+    private int mLastLine = -1;                     // 已填充的最后一个行(列)序号
+    private int mDisplayFirstLine = -1;             // 需要显示的第一个行(列)序号
+    private int mDisplayLastLine = -1;              // 需要显示的最后一个行(列)序号
+
+    private final PagerMetrics mMetrics = new PagerMetrics();   // 布局统计
+
     /**
      * 构造函数
      *
@@ -86,11 +118,12 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     public PagerGridLayoutManager(@IntRange(from = 1, to = 100) int rows,
                                   @IntRange(from = 1, to = 100) int columns,
                                   @OrientationType int orientation) {
-        mItemFrames = new SparseArray<>();
         mOrientation = orientation;
         mRows = rows;
         mColumns = columns;
         mOnePageSize = mRows * mColumns;
+        mGeometry = new PagerGeometry(rows, columns);
+        mGeometry.setOrientation(orientation);
         mCurrentPageIndex = 0;
     }
 
@@ -104,13 +137,33 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
      */
     @Override
     public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        beginTrace(TRACE_LAYOUT);
+        try {
+            layoutChildren(recycler, state);
+        } finally {
+            endTrace();
+        }
+    }
+
+    /**
+     * 布局子View的具体实现
+     *
+     * @param recycler Recycler
+     * @param state    State
+     */
+    private void layoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
         Logi("Item onLayoutChildren");
+        if (mMetrics.mEnabled) mMetrics.mLayoutCount++;
+        flushSlotStash(recycler);
         if (state.isPreLayout()) {
+            layoutForPredictiveAnimations(recycler, state);
             return;
         }
 
         if (getItemCount() == 0) {
             removeAndRecycleAllViews(recycler);
+            mFirstLine = -1;
+            mLastLine = -1;
             // 页面变化回调
             setPageCount(0);
             setPageIndex(0, false);
@@ -118,65 +171,148 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
             return;
         }
 
-        // 计算页面数量
-        int mPageCount = getItemCount() / mOnePageSize;
-        if (getItemCount() % mOnePageSize != 0) {
-            mPageCount++;
+        // 恢复保存的状态
+        if (mPendingSavedState != null) {
+            applySavedState(mPendingSavedState);
+            mPendingSavedState = null;
+        }
+
+        // 布局前调用了 scrollToPage，此时才能确定页面尺寸
+        if (mPendingScrollPage >= 0) {
+            mCurrentPageIndex = Math.min(mPendingScrollPage, getTotalPageCount() - 1);
+            mPendingScrollPage = -1;
+            setOffsetByPage(mCurrentPageIndex);
         }
 
+        if (mCurrentPageIndex >= getTotalPageCount()) {
+            mCurrentPageIndex = getTotalPageCount() - 1;
+        }
+        if (mCurrentPageIndex < 0) {
+            mCurrentPageIndex = 0;
+        }
+
+        // 尺寸发生变化时(如屏幕旋转)，原有的偏移量已经失效，以当前页面为锚点重新计算
+        if (getUsableWidth() != mLastUsableWidth || getUsableHeight() != mLastUsableHeight) {
+            if (mLastUsableWidth > 0 && mLastUsableHeight > 0) {
+                setOffsetByPage(mCurrentPageIndex);
+            }
+            mLastUsableWidth = getUsableWidth();
+            mLastUsableHeight = getUsableHeight();
+        }
+
+        mGeometry.setPageSize(getUsableWidth(), getUsableHeight());
+        mGeometry.setItemCount(getItemCount());
+
         // 计算可以滚动的最大数值，并对滚动距离进行修正
         if (canScrollHorizontally()) {
-            mMaxScrollX = (mPageCount - 1) * getUsableWidth();
+            mMaxScrollX = mGeometry.getMaxScroll();
             mMaxScrollY = getUsableHeight();
             if (mOffsetX > mMaxScrollX) {
                 mOffsetX = mMaxScrollX;
             }
         } else {
             mMaxScrollX = getUsableWidth();
-            mMaxScrollY = (mPageCount - 1) * getUsableHeight();
+            mMaxScrollY = mGeometry.getMaxScroll();
             if (mOffsetY > mMaxScrollY) {
                 mOffsetY = mMaxScrollY;
             }
         }
 
-        if (mCurrentPageIndex >= getTotalPageCount()) {
-            mCurrentPageIndex = getTotalPageCount() - 1;
-        }
-        if (mCurrentPageIndex < 0) {
-            mCurrentPageIndex = 0;
-        }
-
         // 接口回调
         // setPageCount(mPageCount);
         // setPageIndex(mCurrentPageIndex, false);
 
-        Logi("count = " + getItemCount());
-
-        if (mItemWidth <= 0) {
-            mItemWidth = getUsableWidth() / mColumns;
-        }
-        if (mItemHeight <= 0) {
-            mItemHeight = getUsableHeight() / mRows;
-        }
+        Logi("count = ", getItemCount());
 
         mWidthUsed = getUsableWidth() / mColumns * (mColumns - 1);
         mHeightUsed = getUsableHeight() / mRows * (mRows - 1);
 
-        // 预存储两页的View显示区域
-        for (int i = 0; i < mOnePageSize * 2; i++) {
-            getItemFrameByPosition(i);
+        // 条目尺寸可能发生变化，重新计算固定尺寸模式下的测量规格
+        mFixedWidthSpec = 0;
+        mFixedHeightSpec = 0;
+
+        // 回收和填充布局，直接从当前偏移量开始，只获取显示区域内的条目
+        recycleAndFillItems(recycler, state);
+    }
+
+    /**
+     * 预布局，用于执行条目动画
+     * 按照变化前的位置布局当前显示的条目，如果有条目被删除，额外布局即将移动到显示区域中的条目
+     *
+     * @param recycler Recycler
+     * @param state    State
+     */
+    private void layoutForPredictiveAnimations(RecyclerView.Recycler recycler,
+                                               RecyclerView.State state) {
+        detachAndScrapAttachedViews(recycler);
+        if (mFirstLine < 0 || mFirstLine > mLastLine) {
+            return;
+        }
+
+        int itemCount = state.getItemCount();    // 预布局阶段为变化前的条目数量
+        int crossCount = mGeometry.getItemsPerLine();
+        int removedCount = 0;
+        int minPos = itemCount;
+        int maxPos = -1;
+        for (int line = mFirstLine; line <= mLastLine; line++) {
+            for (int i = 0; i < crossCount; i++) {
+                int pos = mGeometry.getPositionByLine(line, i);
+                if (pos >= itemCount) break;
+                View child = recycler.getViewForPosition(pos);
+                addView(child);
+                layoutItem(child, pos);
+                if (((RecyclerView.LayoutParams) child.getLayoutParams()).isItemRemoved()) {
+                    removedCount++;
+                }
+                minPos = Math.min(minPos, pos);
+                maxPos = Math.max(maxPos, pos);
+            }
+        }
+        if (removedCount == 0) {
+            return;
         }
 
-        // 预存储View
-        for (int i = 0; i < mOnePageSize; i++) {
-            if (i >= getItemCount()) break; // 防止数据过少时导致数组越界异常
-            View view = recycler.getViewForPosition(i);
-            addView(view);
-            measureChildWithMargins(view, mWidthUsed, mHeightUsed);
+        // 被删除条目后面的条目会向前移动，提前布局可能移动到显示区域中的条目
+        for (int pos = minPos; pos <= maxPos + removedCount && pos < itemCount; pos++) {
+            int line = mGeometry.getLineByPosition(pos);
+            if (line >= mFirstLine && line <= mLastLine) continue;
+            View child = recycler.getViewForPosition(pos);
+            addView(child);
+            layoutItem(child, pos);
         }
+    }
 
-        // 回收和填充布局
-        recycleAndFillItems(recycler, state);
+    /**
+     * 正式布局阶段布局即将消失的条目
+     * 增删条目后被挤出显示区域(例如跨过页面边界)的条目仍然留在废弃列表中，
+     * 按照变化后的位置布局，执行动画时会移动到新位置，而不是在原地淡出。
+     * 被删除的条目由 RecyclerView 直接执行删除动画，不需要处理。
+     *
+     * @param recycler Recycler
+     */
+    private void layoutDisappearingViews(RecyclerView.Recycler recycler) {
+        List<RecyclerView.ViewHolder> scrapList = recycler.getScrapList();
+        // addDisappearingView 会将条目移出废弃列表，从后向前遍历
+        for (int i = scrapList.size() - 1; i >= 0; i--) {
+            RecyclerView.ViewHolder holder = scrapList.get(i);
+            View child = holder.itemView;
+            if (((RecyclerView.LayoutParams) child.getLayoutParams()).isItemRemoved()) {
+                continue;
+            }
+            int pos = holder.getLayoutPosition();
+            if (pos < 0 || pos >= getItemCount()) continue;
+            addDisappearingView(child);
+            layoutItem(child, pos);
+        }
+    }
+
+    /**
+     * 支持条目的增删动画
+     *
+     * @return true
+     */
+    @Override public boolean supportsPredictiveItemAnimations() {
+        return true;
     }
 
     /**
@@ -190,6 +326,7 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
         // 页面状态回调
         setPageCount(getTotalPageCount());
         setPageIndex(mCurrentPageIndex, false);
+        dispatchScrollFrame(false);
     }
 
     /**
@@ -203,76 +340,181 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
             return;
         }
 
-        Logi("mOffsetX = " + mOffsetX);
-        Logi("mOffsetY = " + mOffsetY);
+        detachAndScrapAttachedViews(recycler); // 移除所有View
+        mFirstLine = -1;
+        mLastLine = -1;
 
-        Rect displayRect = new Rect(
-                getPaddingLeft() + mOffsetX,
-                getPaddingTop() + mOffsetY,
-                getWidth() - getPaddingLeft() - getPaddingRight() + mOffsetX,
-                getHeight() - getPaddingTop() - getPaddingBottom() + mOffsetY);
+        if (!updateDisplayLines()) {
+            return;
+        }
 
-        // 对显示区域进行修正，前后多存储一列或则一行
-        if (canScrollHorizontally()) {
-            // 水平滚动，多存储一列
-            displayRect.left = displayRect.left - mItemWidth;
-            if (displayRect.left < 0) {
-                displayRect.left = 0;
-            }
-            displayRect.right = displayRect.right + mItemWidth;
-            if (displayRect.right > mMaxScrollX + getUsableWidth()) {
-                displayRect.right = mMaxScrollX + getUsableWidth();
-            }
-        } else if (canScrollVertically()) {
-            // 垂直滚动，多存储一行
-            displayRect.top = displayRect.top - mItemHeight;
-            if (displayRect.top < 0) {
-                displayRect.top = 0;
-            }
-            displayRect.bottom = displayRect.bottom + mItemHeight;
-            if (displayRect.bottom > mMaxScrollY + getUsableHeight()) {
-                displayRect.bottom = mMaxScrollY + getUsableHeight();
+        if (mMetrics.mEnabled) mMetrics.recordFill();
+        beginTrace(TRACE_FILL);
+        try {
+            for (int line = mDisplayFirstLine; line <= mDisplayLastLine; line++) {
+                addLine(recycler, line, false);
             }
+        } finally {
+            endTrace();
+        }
+        mFirstLine = mDisplayFirstLine;
+        mLastLine = mDisplayLastLine;
+        if (state.willRunPredictiveAnimations()) {
+            layoutDisappearingViews(recycler);
+        }
+        trimPageBatch();
+        Loge("child count = ", getChildCount());
+    }
+
+    /**
+     * 滚动时增量回收和填充布局
+     * 已经显示的View保持不动，只回收离开显示区域的行(列)，并添加进入显示区域的行(列)
+     *
+     * @param recycler Recycler
+     * @param state    State
+     */
+    private void fillByScroll(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (state.isPreLayout()) {
+            return;
+        }
+        if (mSlotStashDirty || isItemAnimating()) {
+            flushSlotStash(recycler);
         }
 
+        if (!updateDisplayLines()) {
+            if (mMetrics.mEnabled) mMetrics.mRecycleCount += getChildCount();
+            removeAndRecycleAllViews(recycler);
+            mFirstLine = -1;
+            mLastLine = -1;
+            return;
+        }
+        int firstLine = mDisplayFirstLine;
+        int lastLine = mDisplayLastLine;
 
-        Loge("displayRect = " + displayRect.toString());
+        // 显示的行(列)没有变化，只需要偏移，无需填充
+        if (firstLine == mFirstLine && lastLine == mLastLine && getChildCount() > 0) {
+            if (mMetrics.mEnabled) mMetrics.mSkippedFillCount++;
+            return;
+        }
+        if (mMetrics.mEnabled) mMetrics.recordFill();
+        beginTrace(TRACE_FILL);
+        try {
+            // 回收离开显示区域的View
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                int line = mGeometry.getLineByPosition(getPosition(getChildAt(i)));
+                if (line < firstLine || line > lastLine) {
+                    recycleChildAt(i, recycler);
+                    if (mMetrics.mEnabled) mMetrics.mRecycleCount++;
+                }
+            }
 
-        int startPos = 0;                  // 获取第一个条目的Pos
-        if (getChildCount() > 0) {
-            startPos = getPosition(getChildAt(0));
-            startPos = startPos - mOnePageSize * 2;
-            if (startPos < 0) {
-                startPos = 0;
+            if (getChildCount() == 0 || mFirstLine < 0) {
+                // 之前没有显示内容，全部填充
+                for (int line = firstLine; line <= lastLine; line++) {
+                    addLine(recycler, line, false);
+                }
+            } else {
+                // 头部新进入的行(列)，倒序添加到头部以保持顺序
+                for (int line = Math.min(lastLine, mFirstLine - 1); line >= firstLine; line--) {
+                    addLine(recycler, line, true);
+                }
+                // 尾部新进入的行(列)
+                for (int line = Math.max(firstLine, mLastLine + 1); line <= lastLine; line++) {
+                    addLine(recycler, line, false);
+                }
             }
+        } finally {
+            endTrace();
         }
-        int stopPos = startPos + mOnePageSize * 4;
-        if (stopPos > getItemCount()) {
-            stopPos = getItemCount();
+        mFirstLine = firstLine;
+        mLastLine = lastLine;
+        trimPageBatch();
+    }
+
+    /**
+     * 根据当前偏移量计算需要显示的行(列)范围，结果存储在 mDisplayFirstLine 和 mDisplayLastLine 中
+     *
+     * @return 是否存在需要显示的行(列)
+     */
+    private boolean updateDisplayLines() {
+        Logi("offset = ", mOffsetX, mOffsetY);
+
+        if (!mGeometry.isValid()) {
+            return false;
         }
 
-        Loge("startPos = " + startPos);
-        Loge("stopPos = " + stopPos);
+        // 显示区域前后多存储一列或则一行
+        if (canScrollHorizontally()) {
+            // 水平滚动，多存储一列
+            long left = getPaddingLeft() + mOffsetX - mGeometry.getItemWidth();
+            long right = getUsableWidth() + mOffsetX + mGeometry.getItemWidth();
+            if (right > mMaxScrollX + getUsableWidth()) {
+                right = mMaxScrollX + getUsableWidth();
+            }
+            mDisplayFirstLine = mGeometry.getFirstLineByOffset(left);
+            mDisplayLastLine = mGeometry.getLastLineByOffset(right);
+        } else {
+            // 垂直滚动，多存储一行
+            long top = getPaddingTop() + mOffsetY - mGeometry.getItemHeight();
+            long bottom = getUsableHeight() + mOffsetY + mGeometry.getItemHeight();
+            if (bottom > mMaxScrollY + getUsableHeight()) {
+                bottom = mMaxScrollY + getUsableHeight();
+            }
+            mDisplayFirstLine = mGeometry.getFirstLineByOffset(top);
+            mDisplayLastLine = mGeometry.getLastLineByOffset(bottom);
+        }
 
-        detachAndScrapAttachedViews(recycler); // 移除所有View
+        Loge("display lines = ", mDisplayFirstLine, mDisplayLastLine);
+        return mDisplayFirstLine <= mDisplayLastLine;
+    }
 
-        for (int i = startPos; i < stopPos; i++) {
-            View child = recycler.getViewForPosition(i);
-            Rect rect = getItemFrameByPosition(i);
-            if (!Rect.intersects(displayRect, rect)) {
-                removeAndRecycleView(child, recycler);   // 回收入暂存区
-            } else {
+    /**
+     * 添加并布局一行(列)中的所有条目
+     *
+     * @param recycler Recycler
+     * @param line     行(列)序号
+     * @param toHead   是否添加到头部
+     */
+    private void addLine(RecyclerView.Recycler recycler, int line, boolean toHead) {
+        bindPageBatch(line / mGeometry.getLinesPerPage(), PageBatchBinder.REASON_VISIBLE);
+        markLightweightBound();
+        int itemCount = getItemCount();
+        int crossCount = mGeometry.getItemsPerLine();
+        if (toHead) {
+            for (int i = crossCount - 1; i >= 0; i--) {
+                int pos = mGeometry.getPositionByLine(line, i);
+                if (pos >= itemCount) continue;
+                View child = obtainView(recycler, pos);
+                addView(child, 0);
+                layoutItem(child, pos);
+            }
+        } else {
+            for (int i = 0; i < crossCount; i++) {
+                int pos = mGeometry.getPositionByLine(line, i);
+                if (pos >= itemCount) break;   // 同一行(列)中后面的条目下标更大
+                View child = obtainView(recycler, pos);
                 addView(child);
-                measureChildWithMargins(child, mWidthUsed, mHeightUsed);
-                RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
-                layoutDecorated(child,
-                                rect.left - mOffsetX + lp.leftMargin,
-                                rect.top - mOffsetY + lp.topMargin,
-                                rect.right - mOffsetX - lp.rightMargin,
-                                rect.bottom - mOffsetY - lp.bottomMargin);
+                layoutItem(child, pos);
             }
         }
-        Loge("child count = " + getChildCount());
+    }
+
+    /**
+     * 测量并布局条目
+     *
+     * @param child 条目View
+     * @param pos   条目下标
+     */
+    private void layoutItem(View child, int pos) {
+        Rect rect = getItemFrameByPosition(pos);
+        measureChildIfNeeded(child);
+        RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+        layoutDecorated(child,
+                        rect.left + lp.leftMargin,
+                        rect.top + lp.topMargin,
+                        rect.right - lp.rightMargin,
+                        rect.bottom - lp.bottomMargin);
+        if (mMetrics.mEnabled) mMetrics.mChildLayoutCount++;
     }
 
     //--- 处理滚动 ----------------------------------------------------------------------------------
@@ -288,17 +530,24 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     @Override
     public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State
             state) {
-        int newX = mOffsetX + dx;
+        long newX = mOffsetX + dx;
         int result = dx;
         if (newX > mMaxScrollX) {
-            result = mMaxScrollX - mOffsetX;
+            result = (int) (mMaxScrollX - mOffsetX);
         } else if (newX < 0) {
-            result = 0 - mOffsetX;
+            result = (int) (0 - mOffsetX);
         }
         mOffsetX += result;
-        setPageChangedByOffset(mOffsetX);
-        offsetChildrenHorizontal(-result);
-        recycleAndFillItems(recycler, state);
+        trackScrollVelocity(result);
+        if (mMetrics.mEnabled) mMetrics.mScrollCount++;
+        beginTrace(TRACE_SCROLL);
+        try {
+            offsetChildrenHorizontal(-result);
+            fillByScroll(recycler, state);
+        } finally {
+            endTrace();
+        }
+        if (result != 0) scheduleScrollFrame();
         return result;
     }
 
@@ -313,17 +562,24 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     @Override
     public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State
             state) {
-        int newY = mOffsetY + dy;
+        long newY = mOffsetY + dy;
         int result = dy;
         if (newY > mMaxScrollY) {
-            result = mMaxScrollY - mOffsetY;
+            result = (int) (mMaxScrollY - mOffsetY);
         } else if (newY < 0) {
-            result = 0 - mOffsetY;
+            result = (int) (0 - mOffsetY);
         }
         mOffsetY += result;
-        setPageChangedByOffset(mOffsetY);
-        offsetChildrenVertical(-result);
-        recycleAndFillItems(recycler, state);
+        trackScrollVelocity(result);
+        if (mMetrics.mEnabled) mMetrics.mScrollCount++;
+        beginTrace(TRACE_SCROLL);
+        try {
+            offsetChildrenVertical(-result);
+            fillByScroll(recycler, state);
+        } finally {
+            endTrace();
+        }
+        if (result != 0) scheduleScrollFrame();
         return result;
     }
 
@@ -333,7 +589,7 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
      * @param state 滚动状态
      */
     @Override public void onScrollStateChanged(int state) {
-        Logi("onScrollStateChanged = " + state);
+        Logi("onScrollStateChanged = ", state);
         mScrollState = state;
         super.onScrollStateChanged(state);
         if (state == SCROLL_STATE_IDLE) {
@@ -344,20 +600,17 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
             if (getItemCount() <= 0 || getChildCount() <= 0)
                 mCurrentPageIndex = 0;
             // 根据偏移量计算
-            int pageIndex = 0;
-            if (canScrollHorizontally()) {
-                pageIndex = mOffsetX / getUsableWidth();
-                if (mOffsetX % getUsableWidth() > (getUsableWidth() / 2)) {
-                    pageIndex++;
-                }
-            } else {
-                pageIndex = mOffsetY / getUsableHeight();
-                if (mOffsetY % getUsableHeight() > (getUsableHeight() / 2)) {
-                    pageIndex++;
-                }
-            }
+            int pageIndex = mGeometry.getPageIndexByOffset(getScrollOffset());
             mCurrentPageIndex = pageIndex;
             setPageIndex(mCurrentPageIndex, false);
+            // 停止滚动后不再预判，收回预判区域，并立即分发最终状态
+            mScrollVelocity = 0;
+            dispatchScrollFrame(false);
+            // 快速滚动时进行过轻量绑定，完整绑定停留的页面；
+            // 标记在重新绑定真正发出后才清除，被对齐滚动打断时在下一次停止时重新请求
+            if (mLightweightBound) {
+                requestFullBind();
+            }
         }
     }
 
@@ -384,74 +637,183 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
         return getChildAt(0);
     }
 
-    //--- 私有方法 ----------------------------------------------------------------------------------
+    //--- 测量 -------------------------------------------------------------------------------------
+
+    private boolean mFixedCellSize = false;         // 所有条目是否使用相同的布局参数和装饰
+    private int mFixedWidthSpec = 0;                // 固定尺寸模式下的宽度测量规格
+    private int mFixedHeightSpec = 0;               // 固定尺寸模式下的高度测量规格
+    private final Rect mDecorInsets = new Rect();   // 条目装饰的尺寸(复用)
 
     /**
-     * 设置回调监听
+     * 只在需要时测量条目
+     * 条目请求了重新布局，或者测量规格与上次不同时才会重新测量
      *
-     * @param offset 偏移量
+     * @param child 条目View
      */
-    private void setPageChangedByOffset(int offset) {
-        int pageIndex = -1;
-        if (canScrollHorizontally()) {
-            pageIndex = offset / getUsableWidth();
-        } else if (canScrollVertically()) {
-            pageIndex = offset / getUsableHeight();
+    private void measureChildIfNeeded(View child) {
+        int widthSpec;
+        int heightSpec;
+        if (mFixedCellSize && mFixedWidthSpec != 0) {
+            widthSpec = mFixedWidthSpec;
+            heightSpec = mFixedHeightSpec;
+        } else {
+            RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+            calculateItemDecorationsForChild(child, mDecorInsets);
+            widthSpec = getChildMeasureSpec(getWidth(), getWidthMode(),
+                    getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin
+                            + mWidthUsed + mDecorInsets.left + mDecorInsets.right,
+                    lp.width, canScrollHorizontally());
+            heightSpec = getChildMeasureSpec(getHeight(), getHeightMode(),
+                    getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin
+                            + mHeightUsed + mDecorInsets.top + mDecorInsets.bottom,
+                    lp.height, canScrollVertically());
+            if (mFixedCellSize) {
+                mFixedWidthSpec = widthSpec;
+                mFixedHeightSpec = heightSpec;
+            }
         }
-        if (pageIndex >= 0) {
-            setPageIndex(pageIndex, true);
+
+        int[] lastSpec = (int[]) child.getTag(R.id.pager_grid_measure_spec);
+        if (lastSpec != null && !child.isLayoutRequested()
+                && lastSpec[0] == widthSpec && lastSpec[1] == heightSpec) {
+            if (mMetrics.mEnabled) mMetrics.mSkippedMeasureCount++;
+            return;
+        }
+        if (lastSpec == null) {
+            lastSpec = new int[2];
+            child.setTag(R.id.pager_grid_measure_spec, lastSpec);
         }
+        lastSpec[0] = widthSpec;
+        lastSpec[1] = heightSpec;
+        child.measure(widthSpec, heightSpec);
+        if (mMetrics.mEnabled) mMetrics.mMeasureCount++;
     }
 
     /**
-     * 获取条目显示区域
+     * 设置所有条目是否使用相同的布局参数和装饰
+     * 开启后每次布局只计算一次测量规格，条目只有在新绑定后请求布局时才会重新测量
      *
-     * @param pos 位置下标
-     * @return 显示区域
+     * @param fixedCellSize true：相同，false：不同
      */
-    private Rect getItemFrameByPosition(int pos) {
-        Rect rect = mItemFrames.get(pos);
-        if (null == rect) {
-            rect = new Rect();
-            // 计算显示区域 Rect
+    public void setFixedCellSize(boolean fixedCellSize) {
+        mFixedCellSize = fixedCellSize;
+        mFixedWidthSpec = 0;
+        mFixedHeightSpec = 0;
+    }
 
-            // 1. 获取当前View所在页数
-            int page = pos / mOnePageSize;
+    //--- 预加载 -----------------------------------------------------------------------------------
 
-            // 2. 计算当前页数左上角的总偏移量
-            int offsetX = 0;
-            int offsetY = 0;
-            if (canScrollHorizontally()) {
-                offsetX += getUsableWidth() * page;
+    private int mPrefetchLineCount = 1;             // 滚动时预加载的行(列)数
+
+    /**
+     * 滚动时收集即将进入显示区域的条目，交给 GapWorker 在空闲时间提前创建和绑定
+     *
+     * @param dx       水平滚动距离
+     * @param dy       垂直滚动距离
+     * @param state    State
+     * @param registry 预加载位置注册器
+     */
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry registry) {
+        int delta = canScrollHorizontally() ? dx : dy;
+        if (delta == 0 || getChildCount() == 0 || mFirstLine < 0 || !mGeometry.isValid()) {
+            return;
+        }
+        if (mSlotAffine) {
+            return;     // 进入显示区域的条目使用同一槽位的View重新绑定，预加载的View不会被使用
+        }
+        markLightweightBound();     // 预加载的条目同样会在当前滚动状态下绑定
+        int itemCount = state.getItemCount();
+        int maxLine = mGeometry.getMaxLine();
+        int crossCount = mGeometry.getItemsPerLine();
+        long offset = getScrollOffset();
+        for (int i = 1; i <= mPrefetchLineCount; i++) {
+            int line = delta > 0 ? mLastLine + i : mFirstLine - i;
+            if (line < 0 || line > maxLine) break;
+            // 该行(列)进入显示区域还需要滚动的距离
+            long distance;
+            if (delta > 0) {
+                distance = mGeometry.getLineStart(line) - (offset + mGeometry.getPageLength());
             } else {
-                offsetY += getUsableHeight() * page;
+                distance = offset - (mGeometry.getLineStart(line) + mGeometry.getLineLength());
+            }
+            int prefetchDistance = clampToInt(distance < 0 ? 0 : distance);
+            bindPageBatch(line / mGeometry.getLinesPerPage(), PageBatchBinder.REASON_PREFETCH);
+            for (int j = 0; j < crossCount; j++) {
+                int pos = mGeometry.getPositionByLine(line, j);
+                if (pos >= itemCount) break;
+                registry.addPosition(pos, prefetchDistance);
             }
+        }
+    }
 
-            // 3. 根据在当前页面中的位置确定具体偏移量
-            int pagePos = pos % mOnePageSize;       // 在当前页面中是第几个
-            int row = pagePos / mColumns;           // 获取所在行
-            int col = pagePos - (row * mColumns);   // 获取所在列
+    /**
+     * 嵌套在其他 RecyclerView 中时，预加载当前页面的条目
+     *
+     * @param adapterItemCount 条目总数
+     * @param registry         预加载位置注册器
+     */
+    @Override
+    public void collectInitialPrefetchPositions(int adapterItemCount,
+                                                LayoutPrefetchRegistry registry) {
+        int start = Math.max(mCurrentPageIndex, 0) * mOnePageSize;
+        int end = Math.min(start + mOnePageSize, adapterItemCount);
+        if (start < end) {
+            bindPageBatch(Math.max(mCurrentPageIndex, 0), PageBatchBinder.REASON_PREFETCH);
+        }
+        for (int pos = start; pos < end; pos++) {
+            registry.addPosition(pos, 0);
+        }
+    }
 
-            offsetX += col * mItemWidth;
-            offsetY += row * mItemHeight;
+    /**
+     * 设置滚动时预加载的行(列)数，设置为每页的列数(水平滚动)或行数(垂直滚动)时可以预加载整个下一页
+     *
+     * @param lineCount 预加载的行(列)数，0 表示不预加载
+     */
+    public void setPrefetchLineCount(@IntRange(from = 0) int lineCount) {
+        mPrefetchLineCount = Math.max(lineCount, 0);
+    }
 
-            // 状态输出，用于调试
-            Logi("pagePos = " + pagePos);
-            Logi("行 = " + row);
-            Logi("列 = " + col);
+    //--- 私有方法 ----------------------------------------------------------------------------------
 
-            Logi("offsetX = " + offsetX);
-            Logi("offsetY = " + offsetY);
+    /**
+     * 获取条目显示区域
+     * 显示区域直接根据页码和行列计算，并减去当前偏移量，得到相对于 RecyclerView 的位置，
+     * 结果存储在复用的 Rect 中，下次调用时会被覆盖
+     *
+     * @param pos 位置下标
+     * @return 显示区域
+     */
+    private Rect getItemFrameByPosition(int pos) {
+        Rect rect = mItemFrame;
+        rect.left = (int) (mGeometry.getItemLeft(pos) - mOffsetX);
+        rect.top = (int) (mGeometry.getItemTop(pos) - mOffsetY);
+        rect.right = rect.left + mGeometry.getItemWidth();
+        rect.bottom = rect.top + mGeometry.getItemHeight();
+        return rect;
+    }
 
-            rect.left = offsetX;
-            rect.top = offsetY;
-            rect.right = offsetX + mItemWidth;
-            rect.bottom = offsetY + mItemHeight;
+    /**
+     * 获取滚动方向上的偏移量
+     *
+     * @return 水平滚动时为 X 轴偏移量，垂直滚动时为 Y 轴偏移量
+     */
+    private long getScrollOffset() {
+        return canScrollHorizontally() ? mOffsetX : mOffsetY;
+    }
 
-            // 存储
-            mItemFrames.put(pos, rect);
-        }
-        return rect;
+    /**
+     * 将距离限制在 int 范围内，用于交给 RecyclerView 的数值
+     *
+     * @param value 距离
+     * @return int 范围内的距离
+     */
+    private static int clampToInt(long value) {
+        if (value > Integer.MAX_VALUE) return Integer.MAX_VALUE;
+        if (value < Integer.MIN_VALUE) return Integer.MIN_VALUE;
+        return (int) value;
     }
 
     /**
@@ -476,8 +838,10 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
 
     /**
      * 获取总页数
+     *
+     * @return 总页数
      */
-    private int getTotalPageCount() {
+    public int getTotalPageCount() {
         if (getItemCount() <= 0) return 0;
         int totalCount = getItemCount() / mOnePageSize;
         if (getItemCount() % mOnePageSize != 0) {
@@ -486,6 +850,15 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
         return totalCount;
     }
 
+    /**
+     * 获取一页的条目数量
+     *
+     * @return 行数 * 列数
+     */
+    public int getOnePageSize() {
+        return mOnePageSize;
+    }
+
     /**
      * 根据pos，获取该View所在的页面
      *
@@ -493,7 +866,7 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
      * @return 页面的页码
      */
     private int getPageIndexByPos(int pos) {
-        return pos / mOnePageSize;
+        return mGeometry.getPageIndexByPosition(pos);
     }
 
     //--- 公开方法 ----------------------------------------------------------------------------------
@@ -534,13 +907,15 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
      * @return 需要滚动的距离
      */
     @Override public PointF computeScrollVectorForPosition(int targetPosition) {
-        Loge("computeScrollVectorForPosition targetPos = " + targetPosition);
-        int[] pos = getPageLeftTopByPosition(targetPosition);
-        Loge("computeScrollVectorForPosition pos = " + pos[0] + ":" + pos[1]);
+        Loge("computeScrollVectorForPosition targetPos = ", targetPosition);
+        long start = mGeometry.getPageStart(getPageIndexByPos(targetPosition));
         PointF vector = new PointF();
-        vector.x = pos[0] - mOffsetX;
-        vector.y = pos[1] - mOffsetY;
-        Loge("computeScrollVectorForPosition = " + vector.toString());
+        if (canScrollHorizontally()) {
+            vector.x = start - mOffsetX;
+        } else {
+            vector.y = start - mOffsetY;
+        }
+        Loge("computeScrollVectorForPosition = ", (int) vector.x, (int) vector.y);
         return vector;
     }
 
@@ -553,9 +928,9 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
         int page = mCurrentPageIndex;
         page++;
         if (page >= getTotalPageCount()) {
-            page = getTotalPageCount();
+            page = Math.max(getTotalPageCount() - 1, 0);
         }
-        Loge("computeScrollVectorForPosition next = " + page);
+        Loge("computeScrollVectorForPosition next = ", page);
         return page * mOnePageSize;
     }
 
@@ -567,30 +942,104 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     public int findPrePageFirstPos() {
         // 在获取时由于前一页的View预加载出来了，所以获取到的直接就是前一页
         int page = mCurrentPageIndex;
-        Loge("computeScrollVectorForPosition pre = " + page);
+        Loge("computeScrollVectorForPosition pre = ", page);
         if (page < 0) {
             page = 0;
         }
-        Loge("computeScrollVectorForPosition pre = " + page);
+        Loge("computeScrollVectorForPosition pre = ", page);
         return page * mOnePageSize;
     }
 
+    /**
+     * 根据快速滑动的速度和预计滑动距离计算目标页面
+     * 至少向滑动方向移动一页，最多移动 maxPages 页
+     *
+     * @param velocity 滚动方向上的速度，正数表示向后滚动
+     * @param distance 按照速度和减速度预计的滑动距离
+     * @param maxPages 最多移动的页数
+     * @return 目标页码，没有页面时返回 -1
+     */
+    public int findFlingTargetPage(int velocity, int distance, @IntRange(from = 1) int maxPages) {
+        int pageCount = getTotalPageCount();
+        int pageLength = mGeometry.getPageLength();
+        if (pageCount <= 0 || pageLength <= 0) {
+            return -1;
+        }
+        maxPages = Math.max(maxPages, 1);
+        long offset = getScrollOffset();
+        long end = Math.max(offset + distance, 0);
+        int projected = (int) Math.min((end + pageLength / 2) / pageLength, pageCount - 1);
+        int target;
+        if (velocity > 0) {
+            int base = (int) (offset / pageLength);             // 显示区域起点所在的页面
+            target = Math.min(Math.max(projected, base + 1), base + maxPages);
+        } else {
+            int base = (int) ((offset + pageLength - 1) / pageLength);  // 显示区域终点所在的页面
+            target = Math.max(Math.min(projected, base - 1), base - maxPages);
+        }
+        if (target >= pageCount) target = pageCount - 1;
+        if (target < 0) target = 0;
+        Loge("findFlingTargetPage = ", target);
+        return target;
+    }
+
     /**
      * 获取当前 X 轴偏移量
+     * 偏移量超出 int 范围时返回 Integer.MAX_VALUE，此时请使用 {@link #getScrollOffsetLong()}
      *
      * @return X 轴偏移量
      */
     public int getOffsetX() {
-        return mOffsetX;
+        return clampToInt(mOffsetX);
     }
 
     /**
      * 获取当前 Y 轴偏移量
+     * 偏移量超出 int 范围时返回 Integer.MAX_VALUE，此时请使用 {@link #getScrollOffsetLong()}
      *
      * @return Y 轴偏移量
      */
     public int getOffsetY() {
-        return mOffsetY;
+        return clampToInt(mOffsetY);
+    }
+
+    /**
+     * 获取滚动方向上的完整偏移量
+     *
+     * @return 水平滚动时为 X 轴偏移量，垂直滚动时为 Y 轴偏移量
+     */
+    public long getScrollOffsetLong() {
+        return getScrollOffset();
+    }
+
+    /**
+     * 获取页面对齐时滚动方向上的偏移量
+     *
+     * @param pageIndex 页面下标
+     * @return 偏移量
+     */
+    public long getScrollOffsetOfPage(int pageIndex) {
+        return mGeometry.getPageStart(pageIndex);
+    }
+
+    /**
+     * 获取当前偏移量在页面内的部分，与 {@link #getCurrentPageIndex()} 一起可以确定位置
+     *
+     * @return 相对于偏移量所在页面起点的距离
+     */
+    public int getPageOffset() {
+        int pageLength = mGeometry.getPageLength();
+        if (pageLength <= 0) return 0;
+        return (int) (getScrollOffset() % pageLength);
+    }
+
+    /**
+     * 获取布局统计信息，需要调用 {@link PagerMetrics#setEnabled(boolean)} 开启后才会统计
+     *
+     * @return 布局统计
+     */
+    public PagerMetrics getMetrics() {
+        return mMetrics;
     }
 
     //--- 获取偏移量 --------------------------------------------------------------------------------
@@ -608,69 +1057,25 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
             offset[0] = 0;
             offset[1] = 0;
         } else {
-            int[] pageLeftTop = getPageLeftTopByPosition(pos);
-            int[] pageCenter = getPageCenterByPosition(pos);
+            long pageStart = mGeometry.getPageStart(getPageIndexByPos(pos));
 
-            Loge("getSnapOffset pos = " + pos);
-            Loge("pageLeftTop = " + pageLeftTop[0] + ":" + pageLeftTop[1]);
-            Loge("pageCenter = " + pageCenter[0] + ":" + pageCenter[1]);
-            Loge("offset = " + mOffsetX + ":" + mOffsetY);
+            Loge("getSnapOffset pos = ", pos);
+            Loge("offset = ", mOffsetX, mOffsetY);
 
             // 水平模式
             if (canScrollHorizontally()) {
-                offset[0] = pageLeftTop[0] - mOffsetX;
+                offset[0] = clampToInt(pageStart - mOffsetX);
                 offset[1] = 0;
             } else {
                 offset[0] = 0;
-                offset[1] = pageLeftTop[1] - mOffsetY;
+                offset[1] = clampToInt(pageStart - mOffsetY);
             }
 
         }
-        Logi("findTargetSnapPosition offset = " + offset[0] + ":" + offset[1]);
+        Logi("findTargetSnapPosition offset = ", offset[0], offset[1]);
         return offset;
     }
 
-    /**
-     * 根据条目下标获取该条目所在页面的左上角位置
-     *
-     * @param pos 条目下标
-     * @return 左上角位置
-     */
-    private int[] getPageLeftTopByPosition(int pos) {
-        int[] leftTop = new int[2];
-        int page = getPageIndexByPos(pos);
-        if (canScrollHorizontally()) {
-            leftTop[0] = page * getUsableWidth();
-            leftTop[1] = 0;
-        } else {
-            leftTop[0] = 0;
-            leftTop[1] = page * getUsableHeight();
-        }
-        return leftTop;
-    }
-
-    /**
-     * 根据条目下标获取该条目所在页面的中间位置
-     *
-     * @param pos 条目下标
-     * @return 中间位置
-     */
-    private int[] getPageCenterByPosition(int pos) {
-        int[] center = new int[2];
-        int page = pos / mOnePageSize;
-        if (pos % mOnePageSize != 0) {
-            page++;
-        }
-        if (canScrollHorizontally()) {
-            center[0] = (page - 1) * getUsableWidth() + getUsableWidth() / 2;
-            center[1] = getUsableHeight() / 2;
-        } else {
-            center[0] = getUsableWidth() / 2;
-            center[1] = (page - 1) * getUsableHeight() + getUsableHeight() / 2;
-        }
-        return center;
-    }
-
     //--- 处理页码变化 -------------------------------------------------------------------------------
 
     private int mCurrentPageIndex = -1;                 // 当前页面下标
@@ -697,7 +1102,7 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
      * @param isScrolling 是否处于滚动状态
      */
     private void setPageIndex(int pageIndex, boolean isScrolling) {
-        Loge("setPageIndex = " + pageIndex + ":" + isScrolling);
+        Loge("setPageIndex = ", pageIndex, isScrolling ? 1 : 0);
         if (isScrolling && !mChangeSelectInScrolling) return;
         if (isScrolling && pageIndex == mLastPageIndex) return;
         if (pageIndex >= 0 && mPageListener != null) {
@@ -727,28 +1132,1447 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
     public int setOrientationType(@OrientationType int orientation) {
         if (mOrientation == orientation || mScrollState != SCROLL_STATE_IDLE) return mOrientation;
         mOrientation = orientation;
-        mItemFrames.clear();
-        int x = mOffsetX;
-        int y = mOffsetY;
+        mGeometry.setOrientation(orientation);
+        mFirstLine = -1;
+        mLastLine = -1;
+        resetImpressions();
+        long x = mOffsetX;
+        long y = mOffsetY;
         mOffsetX = y / getUsableHeight() * getUsableWidth();
         mOffsetY = x / getUsableWidth() * getUsableHeight();
-        int mx = mMaxScrollX;
-        int my = mMaxScrollY;
+        long mx = mMaxScrollX;
+        long my = mMaxScrollY;
         mMaxScrollX = my / getUsableHeight() * getUsableWidth();
         mMaxScrollY = mx / getUsableWidth() * getUsableHeight();
         return mOrientation;
     }
 
-    //--- 对外接口 ----------------------------------------------------------------------------------
+    //--- 跳转页面 ----------------------------------------------------------------------------------
 
-    private PageListener mPageListener = null;
+    private static final float MILLISECONDS_PER_INCH = 60f;   // 平滑滚动速度，数值越大，速度越慢
+    static final int MAX_SMOOTH_SCROLL_DURATION = 400;         // 平滑滚动的最长时间(毫秒)
 
-    public void setPageListener(PageListener pageListener) {
-        mPageListener = pageListener;
+    private RecyclerView mRecyclerView = null;          // 绑定的 RecyclerView
+    private int mPendingScrollPage = -1;                // 等待布局后跳转的页面
+
+    @Override public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        mRecyclerView = view;
+        applyWarmPageCount();
+        if (mPendingWarmUpPages > 0) {
+            startWarmUp(mPendingWarmUpPages);
+        }
     }
 
-    public interface PageListener {
-        /**
+    @Override public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        view.removeCallbacks(mScrollFrameRunnable);
+        view.removeCallbacks(mFullBindRunnable);
+        view.removeCallbacks(mImpressionFlushRunnable);
+        if (mImpressionTracker != null) {
+            // 界面不可见，结束所有条目的显示
+            mImpressionTracker.hideAll(SystemClock.uptimeMillis());
+        }
+        cancelWarmUp();
+        flushSlotStash(recycler);
+        mScrollFramePending = false;
+        mRecyclerView = null;
+    }
+
+    /**
+     * 直接跳转到条目所在的页面
+     *
+     * @param position 条目下标
+     */
+    @Override public void scrollToPosition(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            Loge("scrollToPosition: position out of range");
+            return;
+        }
+        scrollToPage(getPageIndexByPos(position));
+    }
+
+    /**
+     * 平滑滚动到条目所在的页面
+     *
+     * @param recyclerView RecyclerView
+     * @param state        State
+     * @param position     条目下标
+     */
+    @Override public void smoothScrollToPosition(RecyclerView recyclerView,
+                                                 RecyclerView.State state, int position) {
+        if (position < 0 || position >= state.getItemCount()) {
+            Loge("smoothScrollToPosition: position out of range");
+            return;
+        }
+        smoothScrollToPage(getPageIndexByPos(position));
+    }
+
+    /**
+     * 直接跳转到指定页面
+     * 偏移量根据页码直接计算，只会布局目标页面，不会经过中间的页面
+     *
+     * @param pageIndex 页面下标
+     */
+    public void scrollToPage(int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= getTotalPageCount()) {
+            Loge("scrollToPage: pageIndex out of range");
+            return;
+        }
+        if (mRecyclerView != null) {
+            mRecyclerView.stopScroll();
+        }
+        jumpToPage(pageIndex);
+    }
+
+    /**
+     * 跳转到指定页面，不停止当前的滚动
+     * 滚动状态不会经过 IDLE，对齐工具和轻量绑定不会把跳转当作一次滚动结束，
+     * 用于在开始滚动动画前跳过中间页面，随后的滚动动画会接管当前滚动
+     *
+     * @param pageIndex 页面下标，调用前需要检查范围
+     */
+    void jumpToPage(int pageIndex) {
+        mCurrentPageIndex = pageIndex;
+        if (getUsableWidth() > 0 && getUsableHeight() > 0) {
+            setOffsetByPage(pageIndex);
+        } else {
+            mPendingScrollPage = pageIndex;     // 尚未布局，等待布局时再计算偏移量
+        }
+        requestLayout();
+    }
+
+    /**
+     * 平滑滚动到指定页面
+     * 目标页面距离较远时，先直接跳转到目标页面的相邻页面，只对最后一页执行滚动动画
+     *
+     * @param pageIndex 页面下标
+     */
+    public void smoothScrollToPage(int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= getTotalPageCount()) {
+            Loge("smoothScrollToPage: pageIndex out of range");
+            return;
+        }
+        if (mRecyclerView == null) {
+            scrollToPage(pageIndex);
+            return;
+        }
+        int currentPage = mCurrentPageIndex;
+        if (pageIndex - currentPage > 1) {
+            jumpToPage(pageIndex - 1);
+        } else if (currentPage - pageIndex > 1) {
+            jumpToPage(pageIndex + 1);
+        }
+        LinearSmoothScroller scroller = new PageSmoothScroller(mRecyclerView.getContext());
+        scroller.setTargetPosition(pageIndex * mOnePageSize);
+        startSmoothScroll(scroller);
+    }
+
+    /**
+     * 获取当前页面下标
+     *
+     * @return 页面下标
+     */
+    public int getCurrentPageIndex() {
+        return mCurrentPageIndex;
+    }
+
+    /**
+     * 根据页码设置偏移量
+     *
+     * @param pageIndex 页面下标
+     */
+    private void setOffsetByPage(int pageIndex) {
+        if (canScrollHorizontally()) {
+            mOffsetX = (long) pageIndex * getUsableWidth();
+            mOffsetY = 0;
+        } else {
+            mOffsetX = 0;
+            mOffsetY = (long) pageIndex * getUsableHeight();
+        }
+    }
+
+    /**
+     * 滚动到页面的平滑滚动器，滚动时间有上限
+     */
+    class PageSmoothScroller extends LinearSmoothScroller {
+
+        PageSmoothScroller(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+            int[] snapDistances = getSnapOffset(getPosition(targetView));
+            final int dx = snapDistances[0];
+            final int dy = snapDistances[1];
+            final int time = calculateTimeForDeceleration(Math.max(Math.abs(dx), Math.abs(dy)));
+            if (time > 0) {
+                action.update(dx, dy, time, mDecelerateInterpolator);
+            }
+        }
+
+        @Override
+        protected float calculateSpeedPerPixel(DisplayMetrics displayMetrics) {
+            return MILLISECONDS_PER_INCH / displayMetrics.densityDpi;
+        }
+
+        @Override
+        protected int calculateTimeForScrolling(int dx) {
+            return Math.min(MAX_SMOOTH_SCROLL_DURATION, super.calculateTimeForScrolling(dx));
+        }
+
+        /**
+         * 减速时间是滚动时间除以减速系数，需要单独限制，否则最后一页的动画会超过上限
+         */
+        @Override
+        protected int calculateTimeForDeceleration(int dx) {
+            return Math.min(MAX_SMOOTH_SCROLL_DURATION, super.calculateTimeForDeceleration(dx));
+        }
+    }
+
+    //--- 槽位复用 ----------------------------------------------------------------------------------
+
+    // 每个条目在页面中的位置(行, 列)是固定的，称为槽位。离开显示区域的View暂存在对应的槽位中，
+    // 下一页同一槽位的条目直接使用该View重新绑定，View的尺寸和测量规格不变，可以跳过测量。
+    // 暂存的View不在 Recycler 的管理范围内，每次布局、条目动画、更换 Adapter 和离开窗口时
+    // 都通过 Recycler 回收，RecyclerView 始终只需要处理自己缓存中的View。
+
+    private boolean mSlotAffine = false;            // 是否开启槽位复用
+    private View[] mSlotStash = null;               // 每个槽位暂存的View，已经移除但没有回收
+    private int mSlotStashCount = 0;                // 暂存的View数量
+    private boolean mSlotStashDirty = false;        // 数据发生变化，暂存的View位置已经失效
+
+    /**
+     * 设置是否开启槽位复用
+     * 开启后离开显示区域的View优先留给下一页的同一槽位使用，条目尺寸相同时重新绑定后通常不需要重新测量。
+     * 槽位复用与 {@link #setWarmPageCount(int)} 和预加载互斥：暂存的View会被下一页重新绑定，
+     * 所以滚动时不再预加载，在相邻页面之间来回滑动也会重新绑定。
+     *
+     * @param slotAffine true：开启，false：关闭
+     */
+    public void setSlotAffineRecycling(boolean slotAffine) {
+        mSlotAffine = slotAffine;
+        if (!slotAffine) {
+            mSlotStashDirty = true;     // 在下一次填充时回收暂存的View
+        }
+    }
+
+    /**
+     * 移除并回收子View，开启槽位复用且对应槽位为空时暂存到槽位中
+     *
+     * @param index    子View下标
+     * @param recycler Recycler
+     */
+    private void recycleChildAt(int index, RecyclerView.Recycler recycler) {
+        View child = getChildAt(index);
+        if (mSlotAffine && child != null && !isItemAnimating()) {
+            if (mSlotStash == null || mSlotStash.length != mOnePageSize) {
+                mSlotStash = new View[mOnePageSize];
+            }
+            int slot = getPosition(child) % mOnePageSize;
+            if (mSlotStash[slot] == null) {
+                removeView(child);
+                mSlotStash[slot] = child;
+                mSlotStashCount++;
+                return;
+            }
+        }
+        removeAndRecycleViewAt(index, recycler);
+    }
+
+    /**
+     * 获取条目View，优先使用同一槽位暂存的View
+     *
+     * @param recycler Recycler
+     * @param pos      条目下标
+     * @return 条目View
+     */
+    private View obtainView(RecyclerView.Recycler recycler, int pos) {
+        if (mMetrics.mEnabled) mMetrics.mViewFetchCount++;
+        if (mSlotStashCount > 0) {
+            int slot = pos % mOnePageSize;
+            View child = mSlotStash[slot];
+            if (child != null) {
+                mSlotStash[slot] = null;
+                mSlotStashCount--;
+                if (isSameViewType(child, pos)) {
+                    // 位置相同时(例如滑回原来的页面)View仍然是绑定状态，不需要重新绑定
+                    if (getPosition(child) != pos) {
+                        recycler.bindViewToPosition(child, pos);
+                    }
+                    if (mMetrics.mEnabled) mMetrics.mSlotReuseCount++;
+                    return child;
+                }
+                // 类型不同，不能绑定到新的条目，放回缓存池
+                recycler.recycleView(child);
+            }
+        }
+        return recycler.getViewForPosition(pos);
+    }
+
+    /**
+     * 判断暂存的View是否可以绑定到指定条目
+     *
+     * @param child 暂存的View
+     * @param pos   条目下标
+     * @return 条目类型相同时返回 true
+     */
+    private boolean isSameViewType(View child, int pos) {
+        RecyclerView.Adapter adapter = mRecyclerView != null ? mRecyclerView.getAdapter() : null;
+        return adapter != null && getItemViewType(child) == adapter.getItemViewType(pos);
+    }
+
+    /**
+     * 条目动画是否正在执行，执行期间的View由 RecyclerView 管理，不能暂存
+     *
+     * @return 正在执行时返回 true
+     */
+    private boolean isItemAnimating() {
+        return mRecyclerView != null && mRecyclerView.isAnimating();
+    }
+
+    /**
+     * 获取暂存的View数量
+     *
+     * @return 暂存的View数量
+     */
+    int getSlotStashCount() {
+        return mSlotStashCount;
+    }
+
+    /**
+     * 移除并回收所有子View，暂存的View一起回收
+     * 更换 Adapter 或 LayoutManager 时 RecyclerView 会在清空缓存前调用该方法
+     *
+     * @param recycler Recycler
+     */
+    @Override public void removeAndRecycleAllViews(RecyclerView.Recycler recycler) {
+        flushSlotStash(recycler);
+        super.removeAndRecycleAllViews(recycler);
+    }
+
+    /**
+     * 回收所有暂存的View
+     *
+     * @param recycler Recycler
+     */
+    private void flushSlotStash(RecyclerView.Recycler recycler) {
+        mSlotStashDirty = false;
+        if (mSlotStashCount == 0) {
+            return;
+        }
+        for (int i = 0; i < mSlotStash.length; i++) {
+            if (mSlotStash[i] != null) {
+                recycler.recycleView(mSlotStash[i]);
+                mSlotStash[i] = null;
+            }
+        }
+        mSlotStashCount = 0;
+    }
+
+    // 数据发生变化时，RecyclerView 不会更新已经移除的View的位置，暂存的View需要在下一次填充前回收，
+    // 同时页面数据需要重新批量加载；条目位置变化后曝光统计重新计时(内容更新不影响位置，不需要重置)
+
+    @Override public void onItemsChanged(RecyclerView recyclerView) {
+        mSlotStashDirty = true;
+        resetPageBatch();
+        resetImpressions();
+    }
+
+    @Override public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        mSlotStashDirty = true;
+        resetPageBatch();
+        resetImpressions();
+    }
+
+    @Override
+    public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        mSlotStashDirty = true;
+        resetPageBatch();
+        resetImpressions();
+    }
+
+    @Override
+    public void onItemsUpdated(RecyclerView recyclerView, int positionStart, int itemCount) {
+        mSlotStashDirty = true;
+        resetPageBatch();
+    }
+
+    @Override
+    public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        mSlotStashDirty = true;
+        resetPageBatch();
+        resetImpressions();
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        super.onAdapterChanged(oldAdapter, newAdapter);
+        // setAdapter 已经通过 removeAndRecycleAllViews 回收了暂存的View，
+        // swapAdapter 不会移除子View，暂存的View在下一次布局时通过 Recycler 回收
+        mSlotStashDirty = true;
+        resetPageBatch();
+        resetImpressions();
+    }
+
+    //--- 批量绑定 ----------------------------------------------------------------------------------
+
+    // 页面中的条目开始绑定前，如果 Adapter 实现了 PageBatchBinder，先以页面为单位通知一次，
+    // 已经通知过的页面记录为一段连续的页码范围，页面离开填充区域后才会再次通知；
+    // 预加载可能同时覆盖前后两侧的页面，单独记录，离开预加载范围后才会再次通知
+
+    private int mBatchFirstPage = -1;               // 已经通知(显示)的第一页
+    private int mBatchLastPage = -1;                // 已经通知(显示)的最后一页
+    // 已经通知(预加载)的页面
+    private final SparseBooleanArray mBatchPrefetchPages = new SparseBooleanArray();
+
+    /**
+     * 在页面的条目绑定前通知 Adapter 批量加载
+     *
+     * @param page   页码
+     * @param reason 原因 {@link PageBatchBinder#REASON_VISIBLE} 或 {@link PageBatchBinder#REASON_PREFETCH}
+     */
+    private void bindPageBatch(int page, int reason) {
+        if (mRecyclerView == null || !(mRecyclerView.getAdapter() instanceof PageBatchBinder)) {
+            return;
+        }
+        if (page >= mBatchFirstPage && page <= mBatchLastPage && mBatchFirstPage >= 0) {
+            return;     // 已经作为显示页面通知过
+        }
+        if (reason == PageBatchBinder.REASON_PREFETCH) {
+            if (mBatchPrefetchPages.get(page)) return;
+            mBatchPrefetchPages.put(page, true);
+        } else {
+            if (mBatchFirstPage < 0 || page < mBatchFirstPage - 1 || page > mBatchLastPage + 1) {
+                mBatchFirstPage = page;
+                mBatchLastPage = page;
+            } else if (page < mBatchFirstPage) {
+                mBatchFirstPage = page;
+            } else {
+                mBatchLastPage = page;
+            }
+            mBatchPrefetchPages.delete(page);
+        }
+        int itemCount = getItemCount();
+        int firstPos = page * mOnePageSize;
+        int lastPos = (int) Math.min((long) firstPos + mOnePageSize, itemCount) - 1;
+        if (firstPos > lastPos) return;
+        ((PageBatchBinder) mRecyclerView.getAdapter()).onBindPage(page, firstPos, lastPos, reason);
+    }
+
+    /**
+     * 填充完成后，将已经通知的范围缩小到仍在填充区域中的页面，
+     * 预加载的页面只保留仍在预加载范围内的部分
+     */
+    private void trimPageBatch() {
+        if (mFirstLine < 0 || mLastLine < mFirstLine) {
+            mBatchFirstPage = -1;
+            mBatchLastPage = -1;
+            mBatchPrefetchPages.clear();
+            return;
+        }
+        int linesPerPage = mGeometry.getLinesPerPage();
+        mBatchFirstPage = mFirstLine / linesPerPage;
+        mBatchLastPage = mLastLine / linesPerPage;
+        int reach = (mPrefetchLineCount + linesPerPage - 1) / linesPerPage;   // 预加载覆盖的页数
+        for (int i = mBatchPrefetchPages.size() - 1; i >= 0; i--) {
+            int page = mBatchPrefetchPages.keyAt(i);
+            if (page < mBatchFirstPage - reach || page > mBatchLastPage + reach) {
+                mBatchPrefetchPages.removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * 数据发生变化，所有页面需要重新通知
+     */
+    private void resetPageBatch() {
+        mBatchFirstPage = -1;
+        mBatchLastPage = -1;
+        mBatchPrefetchPages.clear();
+    }
+
+    /**
+     * 页面批量绑定接口，由 Adapter 实现
+     * 页面中的条目绑定前会先调用一次 {@link #onBindPage(int, int, int, int)}，
+     * Adapter 可以在这里一次查询整页的数据、发起整页的图片请求，之后的 onBindViewHolder 直接使用结果。
+     * 预加载的页面进入显示区域时会以 {@link #REASON_VISIBLE} 再通知一次，可以借此提高请求的优先级。
+     */
+    public interface PageBatchBinder {
+        int REASON_VISIBLE = 0;     // 页面进入填充区域，马上就会绑定
+        int REASON_PREFETCH = 1;    // 页面即将被预加载
+
+        /**
+         * 页面即将绑定
+         *
+         * @param pageIndex 页码
+         * @param firstPos  页面第一个条目的下标
+         * @param lastPos   页面最后一个条目的下标
+         * @param reason    原因，{@link #REASON_VISIBLE} 或 {@link #REASON_PREFETCH}
+         */
+        void onBindPage(int pageIndex, int firstPos, int lastPos, int reason);
+    }
+
+    //--- 页面缓存 ----------------------------------------------------------------------------------
+
+    private static final int DEFAULT_VIEW_CACHE_SIZE = 2;   // RecyclerView 默认的缓存数量
+
+    // RecyclerView 不能读取缓存容量，应用自己的容量通过 setViewCacheSize 告知，
+    // 关闭页面缓存时恢复该容量；从未开启过页面缓存时不修改 RecyclerView 的设置
+
+    private int mWarmPageCount = 0;                 // 保持绑定状态的相邻页面数量
+    private int mBaseViewCacheSize = DEFAULT_VIEW_CACHE_SIZE;   // 开启页面缓存之前的缓存容量
+    private boolean mManageViewCache = false;       // 是否由这里管理 RecyclerView 的缓存容量
+
+    /**
+     * 设置保持绑定状态的页面数量
+     * 离开显示区域的条目会先进入 RecyclerView 的缓存，缓存中的条目不会解除绑定，
+     * 相同位置的条目再次显示时直接重新添加，不需要再次绑定。这里将缓存容量设置为 pageCount 页，
+     * 在相邻页面之间来回滑动时不会产生绑定。缓存按照离开的先后顺序淘汰，所以保留的总是最近离开的页面。
+     *
+     * @param pageCount 页面数量，0 表示恢复开启之前的缓存容量
+     */
+    public void setWarmPageCount(@IntRange(from = 0) int pageCount) {
+        mWarmPageCount = Math.max(pageCount, 0);
+        if (mRecyclerView != null) {
+            applyWarmPageCount();
+        }
+    }
+
+    /**
+     * 设置 RecyclerView 的缓存容量
+     * 与 {@link RecyclerView#setItemViewCacheSize(int)} 相同，同时使用页面缓存时应该通过这里设置，
+     * 页面缓存需要的容量较小时使用该容量，关闭页面缓存后恢复为该容量。
+     *
+     * @param size 缓存容量
+     */
+    public void setViewCacheSize(@IntRange(from = 0) int size) {
+        mBaseViewCacheSize = Math.max(size, 0);
+        mManageViewCache = true;
+        if (mRecyclerView != null) {
+            applyWarmPageCount();
+        }
+    }
+
+    /**
+     * 根据页面数量设置 RecyclerView 的缓存容量，不会低于开启之前的容量
+     */
+    private void applyWarmPageCount() {
+        if (mWarmPageCount > 0) {
+            mManageViewCache = true;
+        }
+        if (!mManageViewCache) {
+            return;     // 从未开启过页面缓存，保留应用自己的设置
+        }
+        mRecyclerView.setItemViewCacheSize(
+                Math.max(mWarmPageCount * mOnePageSize, mBaseViewCacheSize));
+    }
+
+    //--- 预创建 ----------------------------------------------------------------------------------
+
+    private static final long WARM_UP_IDLE_BUDGET = 4;      // 每次空闲时最多用于创建条目的时间(毫秒)
+
+    private int mPendingWarmUpPages = 0;                // 等待绑定 RecyclerView 后预创建的页数
+    private Executor mWarmUpExecutor = null;            // 在后台创建条目的线程池，null 表示在主线程空闲时创建
+    private volatile RecyclerView.Adapter mWarmUpAdapter = null;   // 正在预创建的 Adapter
+    private final SparseIntArray mWarmUpRemaining = new SparseIntArray();   // 每种类型还需创建的数量
+
+    private final MessageQueue.IdleHandler mWarmUpIdleHandler = new MessageQueue.IdleHandler() {
+        @Override public boolean queueIdle() {
+            return warmUpStep();
+        }
+    };
+
+    /**
+     * 预创建条目
+     * 提前创建 pageCount 页需要的 ViewHolder 并放入 RecycledViewPool，首次显示和第一次滑动时只需要绑定。
+     * 尚未布局时从当前页开始，已经布局时从下一页开始；RecyclerView 尚未绑定时，绑定后自动开始。
+     * 默认在主线程空闲时逐个创建，每次空闲最多占用几毫秒，不影响正常的消息处理。
+     *
+     * @param pageCount 预创建的页数
+     */
+    public void warmUpViewHolders(@IntRange(from = 1) int pageCount) {
+        if (pageCount <= 0) return;
+        if (mRecyclerView == null) {
+            mPendingWarmUpPages = pageCount;
+            return;
+        }
+        startWarmUp(pageCount);
+    }
+
+    /**
+     * 设置在后台创建条目的线程池
+     * 只有在 Adapter 的 onCreateViewHolder 不依赖主线程时才能设置：只加载布局、不访问其他 View 的状态，
+     * 条目布局中也不能包含必须在主线程创建的 View(例如 WebView，或者在构造方法中创建 Handler 的 View)。
+     * 后台创建时传给 onCreateViewHolder 的 parent 是一个未添加到界面中的 FrameLayout，而不是 RecyclerView，
+     * 创建好的 ViewHolder 会回到主线程后再放入 RecycledViewPool。
+     * 默认(null)在主线程空闲时创建，适用于所有 Adapter，不确定时请保持默认。
+     *
+     * @param executor 线程池，null 表示在主线程空闲时创建
+     */
+    public void setWarmUpExecutor(Executor executor) {
+        mWarmUpExecutor = executor;
+    }
+
+    /**
+     * 统计需要创建的条目类型和数量，然后开始创建
+     *
+     * @param pageCount 预创建的页数
+     */
+    private void startWarmUp(int pageCount) {
+        mPendingWarmUpPages = 0;
+        cancelWarmUp();
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (adapter == null || adapter.getItemCount() <= 0) {
+            return;
+        }
+        int page = mPendingScrollPage >= 0 ? mPendingScrollPage : Math.max(mCurrentPageIndex, 0);
+        if (getChildCount() > 0) {
+            page++;     // 当前页已经创建
+        }
+        int itemCount = adapter.getItemCount();
+        int start = (int) Math.min((long) page * mOnePageSize, itemCount);
+        // 布局时会多填充一行(列)
+        int end = (int) Math.min((long) (page + pageCount) * mOnePageSize
+                                         + mGeometry.getItemsPerLine(), itemCount);
+        for (int pos = start; pos < end; pos++) {
+            int type = adapter.getItemViewType(pos);
+            mWarmUpRemaining.put(type, mWarmUpRemaining.get(type) + 1);
+        }
+
+        // 缓存池中已有的条目不需要再创建
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        for (int i = 0; i < mWarmUpRemaining.size(); i++) {
+            int type = mWarmUpRemaining.keyAt(i);
+            int count = mWarmUpRemaining.valueAt(i);
+            mWarmUpRemaining.put(type, Math.max(count - pool.getRecycledViewCount(type), 0));
+        }
+        mWarmUpAdapter = adapter;
+
+        if (mWarmUpExecutor != null) {
+            // 布局参数和主题在主线程准备好，后台线程不接触已经显示的 View 树
+            ViewGroup parent = new FrameLayout(mRecyclerView.getContext());
+            mWarmUpExecutor.execute(new BackgroundWarmUp(mRecyclerView, parent, adapter,
+                                                         mWarmUpRemaining));
+            mWarmUpRemaining.clear();
+        } else {
+            Looper.myQueue().addIdleHandler(mWarmUpIdleHandler);
+        }
+    }
+
+    /**
+     * 在主线程空闲时创建条目
+     *
+     * @return 是否还有需要创建的条目
+     */
+    private boolean warmUpStep() {
+        if (mRecyclerView == null || mRecyclerView.getAdapter() != mWarmUpAdapter) {
+            mWarmUpRemaining.clear();
+            mWarmUpAdapter = null;
+            return false;
+        }
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        long deadline = SystemClock.uptimeMillis() + WARM_UP_IDLE_BUDGET;
+        int index = 0;
+        while (index < mWarmUpRemaining.size()) {
+            int count = mWarmUpRemaining.valueAt(index);
+            if (count <= 0) {
+                index++;
+                continue;
+            }
+            int type = mWarmUpRemaining.keyAt(index);
+            putWarmUpHolder(pool, mWarmUpAdapter.createViewHolder(mRecyclerView, type), count);
+            mWarmUpRemaining.put(type, count - 1);
+            if (SystemClock.uptimeMillis() >= deadline) {
+                return true;    // 等待下一次空闲
+            }
+        }
+        mWarmUpRemaining.clear();
+        mWarmUpAdapter = null;
+        return false;
+    }
+
+    /**
+     * 将预创建的条目放入缓存池
+     * RecycledViewPool 不能读取容量，而且降低容量会丢弃已有的条目(可能是其他页面共享的)，
+     * 所以不预先设置容量：放入失败说明已满，此时容量等于已有数量，在此基础上增加，只会提高容量
+     *
+     * @param pool      缓存池
+     * @param holder    预创建的条目
+     * @param remaining 该类型还需要放入的数量(包含本条目)
+     */
+    private static void putWarmUpHolder(RecyclerView.RecycledViewPool pool,
+                                        RecyclerView.ViewHolder holder, int remaining) {
+        int type = holder.getItemViewType();
+        int count = pool.getRecycledViewCount(type);
+        pool.putRecycledView(holder);
+        if (pool.getRecycledViewCount(type) == count) {
+            pool.setMaxRecycledViews(type, count + remaining);
+            pool.putRecycledView(holder);
+        }
+    }
+
+    /**
+     * 取消尚未完成的预创建
+     */
+    private void cancelWarmUp() {
+        Looper.myQueue().removeIdleHandler(mWarmUpIdleHandler);
+        mWarmUpRemaining.clear();
+        mWarmUpAdapter = null;
+    }
+
+    /**
+     * 在后台线程创建条目，完成后回到主线程放入缓存池
+     * 条目以一个未添加到界面中的 ViewGroup 作为 parent 创建，添加到 RecyclerView 时再转换布局参数
+     */
+    private class BackgroundWarmUp implements Runnable {
+        private final RecyclerView mTarget;
+        private final ViewGroup mParent;
+        private final RecyclerView.Adapter mAdapter;
+        private final int[] mTypes;
+        private final int[] mCounts;
+        private final ArrayList<RecyclerView.ViewHolder> mHolders = new ArrayList<>();
+
+        BackgroundWarmUp(RecyclerView target, ViewGroup parent, RecyclerView.Adapter adapter,
+                         SparseIntArray remaining) {
+            mTarget = target;
+            mParent = parent;
+            mAdapter = adapter;
+            mTypes = new int[remaining.size()];
+            mCounts = new int[remaining.size()];
+            for (int i = 0; i < remaining.size(); i++) {
+                mTypes[i] = remaining.keyAt(i);
+                mCounts[i] = remaining.valueAt(i);
+            }
+        }
+
+        @Override public void run() {
+            for (int i = 0; i < mTypes.length; i++) {
+                for (int j = 0; j < mCounts[i]; j++) {
+                    if (mWarmUpAdapter != mAdapter) return;     // 已经取消
+                    mHolders.add(mAdapter.createViewHolder(mParent, mTypes[i]));
+                }
+            }
+            mTarget.post(new Runnable() {
+                @Override public void run() {
+                    if (mWarmUpAdapter != mAdapter || mTarget.getAdapter() != mAdapter) return;
+                    RecyclerView.RecycledViewPool pool = mTarget.getRecycledViewPool();
+                    int index = 0;
+                    for (int i = 0; i < mTypes.length; i++) {
+                        for (int j = 0; j < mCounts[i] && index < mHolders.size(); j++) {
+                            putWarmUpHolder(pool, mHolders.get(index++), mCounts[i] - j);
+                        }
+                    }
+                    mWarmUpAdapter = null;
+                }
+            });
+        }
+    }
+
+    //--- 状态保存 ----------------------------------------------------------------------------------
+
+    private SavedState mPendingSavedState = null;       // 等待恢复的状态
+
+    /**
+     * 保存状态
+     *
+     * @return 保存的状态
+     */
+    @Override public Parcelable onSaveInstanceState() {
+        if (mPendingSavedState != null) {
+            return new SavedState(mPendingSavedState);
+        }
+        SavedState state = new SavedState();
+        state.mOffsetX = mOffsetX;
+        state.mOffsetY = mOffsetY;
+        state.mPageIndex = mCurrentPageIndex;
+        state.mOrientation = mOrientation;
+        state.mRows = mRows;
+        state.mColumns = mColumns;
+        state.mPageLength = canScrollHorizontally() ? getUsableWidth() : getUsableHeight();
+        return state;
+    }
+
+    /**
+     * 恢复状态，在下一次布局时生效
+     *
+     * @param state 保存的状态
+     */
+    @Override public void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof SavedState) {
+            mPendingSavedState = (SavedState) state;
+            requestLayout();
+        }
+    }
+
+    /**
+     * 应用保存的状态
+     * 行列数和滚动方向以构造时传入的为准(例如横屏时使用更多的列)，保存的值只用于判断布局是否发生变化；
+     * 布局没有变化时恢复页面内的偏移量，页面尺寸变化时按比例缩放
+     *
+     * @param state 保存的状态
+     */
+    private void applySavedState(SavedState state) {
+        int pageIndex = Math.max(state.mPageIndex, 0);
+        boolean sameGrid = state.mRows == mRows && state.mColumns == mColumns;
+        if (!sameGrid) {
+            // 行列数发生变化，根据页面第一个条目重新计算页码
+            pageIndex = (int) ((long) pageIndex * state.mRows * state.mColumns / mOnePageSize);
+        }
+        if (pageIndex >= getTotalPageCount()) {
+            pageIndex = getTotalPageCount() - 1;
+        }
+        if (pageIndex < 0) {
+            pageIndex = 0;
+        }
+        mCurrentPageIndex = pageIndex;
+        setOffsetByPage(pageIndex);
+        if (sameGrid && state.mOrientation == mOrientation && pageIndex == state.mPageIndex
+                && state.mPageLength > 0) {
+            long savedOffset = state.mOrientation == VERTICAL ? state.mOffsetY : state.mOffsetX;
+            long inPage = savedOffset - (long) pageIndex * state.mPageLength;
+            long pageLength = canScrollHorizontally() ? getUsableWidth() : getUsableHeight();
+            long offset = Math.max(getScrollOffset() + inPage * pageLength / state.mPageLength, 0);
+            if (canScrollHorizontally()) {
+                mOffsetX = offset;
+            } else {
+                mOffsetY = offset;
+            }
+        }
+        mLastUsableWidth = getUsableWidth();
+        mLastUsableHeight = getUsableHeight();
+    }
+
+    /**
+     * 保存的状态
+     */
+    public static class SavedState implements Parcelable {
+        long mOffsetX;          // 水平偏移量
+        long mOffsetY;          // 垂直偏移量
+        int mPageIndex;         // 当前页码
+        int mOrientation;       // 滚动方向
+        int mRows;              // 行数
+        int mColumns;           // 列数
+        int mPageLength;        // 滚动方向上的页面尺寸
+
+        public SavedState() {
+        }
+
+        SavedState(Parcel in) {
+            mOffsetX = in.readLong();
+            mOffsetY = in.readLong();
+            mPageIndex = in.readInt();
+            mOrientation = in.readInt();
+            mRows = in.readInt();
+            mColumns = in.readInt();
+            mPageLength = in.readInt();
+        }
+
+        public SavedState(SavedState other) {
+            mOffsetX = other.mOffsetX;
+            mOffsetY = other.mOffsetY;
+            mPageIndex = other.mPageIndex;
+            mOrientation = other.mOrientation;
+            mRows = other.mRows;
+            mColumns = other.mColumns;
+            mPageLength = other.mPageLength;
+        }
+
+        @Override public int describeContents() {
+            return 0;
+        }
+
+        @Override public void writeToParcel(Parcel dest, int flags) {
+            dest.writeLong(mOffsetX);
+            dest.writeLong(mOffsetY);
+            dest.writeInt(mPageIndex);
+            dest.writeInt(mOrientation);
+            dest.writeInt(mRows);
+            dest.writeInt(mColumns);
+            dest.writeInt(mPageLength);
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    //--- 轻量绑定 ----------------------------------------------------------------------------------
+
+    /**
+     * 快速滚动结束后重新完整绑定时使用的 payload
+     * Adapter 可以在 onBindViewHolder(holder, position, payloads) 中通过它区分完整绑定请求
+     */
+    public static final Object PAYLOAD_FULL_BIND = new Object();
+
+    private int mLightweightVelocity = 0;           // 轻量绑定的速度阀值(像素/秒)，0 表示关闭
+    private boolean mLightweightBound = false;      // 本次滚动中是否进行过轻量绑定
+
+    private final Runnable mFullBindRunnable = new Runnable() {
+        @Override public void run() {
+            notifyFullBind();
+        }
+    };
+
+    /**
+     * 设置轻量绑定的速度阀值
+     * 开启后，惯性滚动(SCROLL_STATE_SETTLING)速度超过阀值时 {@link #isLightweightBinding()} 返回 true，
+     * Adapter 可以只绑定占位内容；滚动停止后，停留页面及前后各一页的条目会以
+     * {@link #PAYLOAD_FULL_BIND} 重新绑定。
+     *
+     * @param velocity 速度阀值(像素/秒)，0 表示关闭
+     */
+    public void setLightweightBindingThreshold(@IntRange(from = 0) int velocity) {
+        mLightweightVelocity = Math.max(velocity, 0);
+    }
+
+    /**
+     * 判断当前是否应该进行轻量绑定，在 Adapter 的 onBindViewHolder 中调用
+     * 只读取滚动状态，在其他地方调用(例如日志)不会影响之后的完整绑定
+     *
+     * @return true：只需要绑定占位内容，false：需要完整绑定
+     */
+    public boolean isLightweightBinding() {
+        if (mLightweightVelocity <= 0 || mScrollState != SCROLL_STATE_SETTLING) {
+            return false;
+        }
+        return Math.abs(mScrollVelocity) * 1000 >= mLightweightVelocity;
+    }
+
+    /**
+     * 填充或预加载条目前调用，满足轻量绑定条件时记录下来，滚动停止后完整绑定
+     */
+    private void markLightweightBound() {
+        if (isLightweightBinding()) {
+            mLightweightBound = true;
+        }
+    }
+
+    /**
+     * 请求完整绑定，滚动状态回调中不能修改数据，所以延迟到下一次消息循环
+     */
+    private void requestFullBind() {
+        if (mRecyclerView != null) {
+            mRecyclerView.removeCallbacks(mFullBindRunnable);
+            mRecyclerView.post(mFullBindRunnable);
+        }
+    }
+
+    /**
+     * 通知停留页面及前后各一页的条目重新完整绑定，
+     * 包含前后页面是因为快速滚动中轻量绑定的条目可能仍在缓存中，直接复用时不会重新绑定。
+     * 停止后立即开始了新的滚动(例如对齐)时不通知，保留标记等待下一次停止
+     */
+    private void notifyFullBind() {
+        if (mRecyclerView == null || mScrollState != SCROLL_STATE_IDLE) return;
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        mLightweightBound = false;
+        if (adapter == null) return;
+        int itemCount = adapter.getItemCount();
+        int start = Math.max(mCurrentPageIndex - 1, 0) * mOnePageSize;
+        int end = (int) Math.min((long) (mCurrentPageIndex + 2) * mOnePageSize, itemCount);
+        if (start < end) {
+            adapter.notifyItemRangeChanged(start, end - start, PAYLOAD_FULL_BIND);
+        }
+    }
+
+    //--- 滚动进度 ----------------------------------------------------------------------------------
+
+    // 滚动事件的频率可能高于屏幕刷新率，所以滚动时只标记，在下一帧统一计算一次页码和进度，
+    // 然后依次通知选中页面、页面生命周期和滚动进度
+
+    private final ArrayList<PageScrollListener> mPageScrollListeners = new ArrayList<>();
+    private boolean mScrollFramePending = false;    // 是否已经请求了下一帧的分发
+    private long mLastDispatchOffset = -1;          // 上次分发进度时的偏移量
+
+    private final Runnable mScrollFrameRunnable = new Runnable() {
+        @Override public void run() {
+            mScrollFramePending = false;
+            dispatchScrollFrame(true);
+        }
+    };
+
+    /**
+     * 添加滚动进度监听
+     *
+     * @param listener 滚动进度监听
+     */
+    public void addPageScrollListener(PageScrollListener listener) {
+        if (listener != null && !mPageScrollListeners.contains(listener)) {
+            mPageScrollListeners.add(listener);
+        }
+    }
+
+    /**
+     * 移除滚动进度监听
+     *
+     * @param listener 滚动进度监听
+     */
+    public void removePageScrollListener(PageScrollListener listener) {
+        mPageScrollListeners.remove(listener);
+    }
+
+    /**
+     * 请求在下一帧分发滚动状态，同一帧内的多次请求只会分发一次
+     */
+    private void scheduleScrollFrame() {
+        if (mScrollFramePending) return;
+        if (mRecyclerView == null) {
+            dispatchScrollFrame(true);
+            return;
+        }
+        mScrollFramePending = true;
+        ViewCompat.postOnAnimation(mRecyclerView, mScrollFrameRunnable);
+    }
+
+    /**
+     * 根据当前偏移量计算页码和进度，并分发给所有监听
+     *
+     * @param isScrolling 是否由滚动触发，滚动时根据偏移量所在的页面更新选中页面，
+     *                    布局和停止滚动时选中页面已经确定，不再更新
+     */
+    private void dispatchScrollFrame(boolean isScrolling) {
+        if (mScrollFramePending) {
+            // 已经立即分发，取消下一帧的分发
+            mScrollFramePending = false;
+            if (mRecyclerView != null) {
+                mRecyclerView.removeCallbacks(mScrollFrameRunnable);
+            }
+        }
+        int pageLength = mGeometry.getPageLength();
+        long offset = getScrollOffset();
+        if (pageLength <= 0 || getItemCount() <= 0) {
+            mLastDispatchOffset = -1;
+            updatePageLifecycle();
+            updateImpressions(offset);
+            return;
+        }
+        int pageIndex = (int) (offset / pageLength);
+        int pageOffset = (int) (offset - (long) pageIndex * pageLength);
+
+        // 滚动过程中的选中页面
+        if (isScrolling) {
+            setPageIndex(pageIndex, true);
+        }
+        updatePageLifecycle();
+        updateImpressions(offset);
+
+        if (offset == mLastDispatchOffset) return;
+        mLastDispatchOffset = offset;
+        float fraction = (float) pageOffset / pageLength;
+        for (int i = 0; i < mPageScrollListeners.size(); i++) {
+            mPageScrollListeners.get(i).onPageScrolled(pageIndex, fraction, pageOffset);
+        }
+    }
+
+    /**
+     * 滚动进度监听，每帧最多回调一次
+     */
+    public interface PageScrollListener {
+        /**
+         * 页面滚动
+         *
+         * @param pageIndex          显示区域起点所在的页码
+         * @param pageOffsetFraction 显示区域起点在该页中的比例，范围 [0, 1)
+         * @param pageOffsetPixels   显示区域起点距离该页起点的像素
+         */
+        void onPageScrolled(int pageIndex, float pageOffsetFraction, int pageOffsetPixels);
+    }
+
+    //--- 页面生命周期 --------------------------------------------------------------------------------
+
+    private static final long VELOCITY_TIMEOUT = 100;   // 两次滚动间隔超过该时间(毫秒)时重新计算速度
+
+    private final ArrayList<PageLifecycleListener> mPageLifecycleListeners = new ArrayList<>();
+    private long mLookaheadMillis = 300;            // 预判时间，按照当前速度滚动该时间的距离内的页面会收到预告
+    private int mMaxLookaheadPages = 2;             // 最多预告显示区域外的页面数量
+
+    private float mScrollVelocity = 0;              // 滚动速度(像素/毫秒)，正数表示向后滚动
+    private long mLastScrollTime = 0;               // 上次滚动的时间
+
+    // 页面范围全部使用 int 记录，更新时直接比较新旧范围，不分配对象，-1 表示没有页面
+    private int mVisibleFirstPage = -1;             // 显示中的第一页
+    private int mVisibleLastPage = -1;              // 显示中的最后一页
+    private int mLookaheadFirstPage = -1;           // 预判区域(包含显示区域)中的第一页
+    private int mLookaheadLastPage = -1;            // 预判区域(包含显示区域)中的最后一页
+
+    /**
+     * 添加页面生命周期监听，添加后立即收到当前预判区域和显示区域中页面的通知
+     *
+     * @param listener 页面生命周期监听
+     */
+    public void addPageLifecycleListener(PageLifecycleListener listener) {
+        if (listener == null || mPageLifecycleListeners.contains(listener)) return;
+        mPageLifecycleListeners.add(listener);
+        if (mPageLifecycleListeners.size() == 1) {
+            // 没有监听时不记录页面范围，重新计算并通知
+            mVisibleFirstPage = -1;
+            mVisibleLastPage = -1;
+            mLookaheadFirstPage = -1;
+            mLookaheadLastPage = -1;
+            updatePageLifecycle();
+            return;
+        }
+        // 其他监听已经收到过通知，只通知新的监听
+        int pageCount = getTotalPageCount();
+        for (int page = mLookaheadFirstPage; page >= 0 && page <= mLookaheadLastPage; page++) {
+            dispatchPageLifecycle(listener, PAGE_WILL_APPEAR, page, pageCount);
+        }
+        for (int page = mVisibleFirstPage; page >= 0 && page <= mVisibleLastPage; page++) {
+            dispatchPageLifecycle(listener, PAGE_APPEARED, page, pageCount);
+        }
+    }
+
+    /**
+     * 移除页面生命周期监听
+     *
+     * @param listener 页面生命周期监听
+     */
+    public void removePageLifecycleListener(PageLifecycleListener listener) {
+        mPageLifecycleListeners.remove(listener);
+    }
+
+    /**
+     * 设置预判范围
+     * 按照当前滚动速度，在 lookaheadMillis 时间内会进入显示区域的页面提前收到
+     * {@link PageLifecycleListener#onPageWillAppear(int, int, int)}，滚动越快预判越远
+     *
+     * @param lookaheadMillis 预判时间(毫秒)，0 表示不预判
+     * @param maxPages        最多预判显示区域外的页面数量
+     */
+    public void setPageLookahead(@IntRange(from = 0) long lookaheadMillis,
+                                 @IntRange(from = 0) int maxPages) {
+        mLookaheadMillis = Math.max(lookaheadMillis, 0);
+        mMaxLookaheadPages = Math.max(maxPages, 0);
+    }
+
+    /**
+     * 获取当前滚动速度
+     *
+     * @return 滚动速度(像素/毫秒)，正数表示向后滚动，负数表示向前滚动，停止时为 0
+     */
+    public float getScrollVelocity() {
+        return mScrollVelocity;
+    }
+
+    /**
+     * 根据滚动距离和时间间隔估算滚动速度
+     *
+     * @param delta 本次滚动距离
+     */
+    private void trackScrollVelocity(int delta) {
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        long interval = now - mLastScrollTime;
+        mLastScrollTime = now;
+        if (delta == 0) {
+            return;
+        }
+        if (interval >= VELOCITY_TIMEOUT) {
+            // 新的一次滚动，还没有足够的数据计算速度，先只记录方向
+            mScrollVelocity = delta > 0 ? Float.MIN_VALUE : -Float.MIN_VALUE;
+            return;
+        }
+        if (interval <= 0) {
+            // 同一帧内的多次滚动，按照一帧的时间计算
+            interval = 1;
+        }
+        float velocity = (float) delta / interval;
+        if (velocity * mScrollVelocity <= 0) {
+            // 方向反转，立即使用新的速度，让反方向的预告尽快取消
+            mScrollVelocity = velocity;
+        } else {
+            mScrollVelocity = (mScrollVelocity + velocity) / 2;
+        }
+    }
+
+    /**
+     * 根据偏移量和滚动速度更新显示中和预判中的页面，并通知变化
+     * 通知顺序为：离开的页面、即将显示的页面(距离近的在前)、开始显示的页面
+     */
+    private void updatePageLifecycle() {
+        if (mPageLifecycleListeners.isEmpty()) {
+            return;
+        }
+        int pageCount = getTotalPageCount();
+        int pageLength = mGeometry.getPageLength();
+        int visibleFirst = -1;
+        int visibleLast = -1;
+        int lookaheadFirst = -1;
+        int lookaheadLast = -1;
+        if (pageCount > 0 && pageLength > 0 && getChildCount() > 0) {
+            long start = getScrollOffset();
+            long end = start + pageLength;
+            visibleFirst = (int) (start / pageLength);
+            visibleLast = Math.min((int) ((end - 1) / pageLength), pageCount - 1);
+
+            // 预判区域只向滚动方向延伸
+            long distance = (long) (Math.abs(mScrollVelocity) * mLookaheadMillis);
+            distance = Math.min(distance, (long) mMaxLookaheadPages * pageLength);
+            if (mScrollVelocity > 0) {
+                end += distance;
+            } else if (mScrollVelocity < 0) {
+                start = Math.max(start - distance, 0);
+            }
+            lookaheadFirst = (int) (start / pageLength);
+            lookaheadLast = Math.min((int) ((end - 1) / pageLength), pageCount - 1);
+        }
+
+        int oldVisibleFirst = mVisibleFirstPage;
+        int oldVisibleLast = mVisibleLastPage;
+        int oldLookaheadFirst = mLookaheadFirstPage;
+        int oldLookaheadLast = mLookaheadLastPage;
+        if (visibleFirst == oldVisibleFirst && visibleLast == oldVisibleLast
+                && lookaheadFirst == oldLookaheadFirst && lookaheadLast == oldLookaheadLast) {
+            return;
+        }
+        mVisibleFirstPage = visibleFirst;
+        mVisibleLastPage = visibleLast;
+        mLookaheadFirstPage = lookaheadFirst;
+        mLookaheadLastPage = lookaheadLast;
+
+        // 离开预判区域的页面
+        for (int page = oldLookaheadFirst; page >= 0 && page <= oldLookaheadLast; page++) {
+            if (page < lookaheadFirst || page > lookaheadLast) {
+                dispatchPageLifecycle(PAGE_DISAPPEARED, page, pageCount);
+            }
+        }
+        // 进入预判区域的页面，按照滚动方向由近到远通知
+        if (mScrollVelocity >= 0) {
+            for (int page = lookaheadFirst; page >= 0 && page <= lookaheadLast; page++) {
+                if (page < oldLookaheadFirst || page > oldLookaheadLast) {
+                    dispatchPageLifecycle(PAGE_WILL_APPEAR, page, pageCount);
+                }
+            }
+        } else {
+            for (int page = lookaheadLast; page >= 0 && page >= lookaheadFirst; page--) {
+                if (page < oldLookaheadFirst || page > oldLookaheadLast) {
+                    dispatchPageLifecycle(PAGE_WILL_APPEAR, page, pageCount);
+                }
+            }
+        }
+        // 进入显示区域的页面
+        for (int page = visibleFirst; page >= 0 && page <= visibleLast; page++) {
+            if (page < oldVisibleFirst || page > oldVisibleLast) {
+                dispatchPageLifecycle(PAGE_APPEARED, page, pageCount);
+            }
+        }
+    }
+
+    private static final int PAGE_WILL_APPEAR = 0;
+    private static final int PAGE_APPEARED = 1;
+    private static final int PAGE_DISAPPEARED = 2;
+
+    /**
+     * 通知所有监听页面生命周期变化
+     *
+     * @param event     事件类型
+     * @param page      页码
+     * @param pageCount 页面总数
+     */
+    private void dispatchPageLifecycle(int event, int page, int pageCount) {
+        for (int i = 0; i < mPageLifecycleListeners.size(); i++) {
+            dispatchPageLifecycle(mPageLifecycleListeners.get(i), event, page, pageCount);
+        }
+    }
+
+    /**
+     * 通知页面生命周期变化
+     *
+     * @param listener  页面生命周期监听
+     * @param event     事件类型
+     * @param page      页码
+     * @param pageCount 页面总数
+     */
+    private void dispatchPageLifecycle(PageLifecycleListener listener, int event, int page,
+                                       int pageCount) {
+        int firstPos = page * mOnePageSize;
+        int lastPos = page < pageCount
+                ? Math.min(firstPos + mOnePageSize, getItemCount()) - 1
+                : firstPos - 1;     // 页面已经不存在(条目被删除)，范围为空
+        switch (event) {
+            case PAGE_WILL_APPEAR:
+                listener.onPageWillAppear(page, firstPos, lastPos);
+                break;
+            case PAGE_APPEARED:
+                listener.onPageAppeared(page, firstPos, lastPos);
+                break;
+            case PAGE_DISAPPEARED:
+                listener.onPageDisappeared(page, firstPos, lastPos);
+                break;
+        }
+    }
+
+    /**
+     * 页面生命周期监听
+     * 每个页面依次经历 即将显示 -> 开始显示 -> 离开，即将显示的页面如果没有显示就离开了(例如滚动方向反转)，
+     * 会直接收到离开通知，可以借此取消预加载。回调中的参数都是基本类型，通知过程不会分配对象。
+     */
+    public interface PageLifecycleListener {
+        /**
+         * 页面即将显示，按照当前滚动速度很快会进入显示区域，适合开始预加载
+         *
+         * @param pageIndex 页码
+         * @param firstPos  页面第一个条目的下标
+         * @param lastPos   页面最后一个条目的下标
+         */
+        void onPageWillAppear(int pageIndex, int firstPos, int lastPos);
+
+        /**
+         * 页面开始显示(至少有一部分进入了显示区域)
+         *
+         * @param pageIndex 页码
+         * @param firstPos  页面第一个条目的下标
+         * @param lastPos   页面最后一个条目的下标
+         */
+        void onPageAppeared(int pageIndex, int firstPos, int lastPos);
+
+        /**
+         * 页面离开显示区域和预判区域，适合取消尚未完成的预加载
+         *
+         * @param pageIndex 页码
+         * @param firstPos  页面第一个条目的下标
+         * @param lastPos   页面最后一个条目的下标，页面已经不存在时小于 firstPos
+         */
+        void onPageDisappeared(int pageIndex, int firstPos, int lastPos);
+    }
+
+    //--- 曝光统计 ----------------------------------------------------------------------------------
+
+    // 可见比例直接根据几何计算和偏移量得到，在每帧的滚动分发中更新，不遍历子View也不分配对象；
+    // 达到条件的曝光在滚动停止时批量回调，停止后仍在计时的条目通过延时任务在达到条件时回调
+
+    private PagerImpressionTracker mImpressionTracker = null;
+    private ImpressionListener mImpressionListener = null;
+    private float mImpressionVisibleFraction = 0.5f;    // 最小可见比例
+    private long mImpressionDwellMillis = 1000;         // 最短显示时间(毫秒)
+
+    private final Runnable mImpressionFlushRunnable = new Runnable() {
+        @Override public void run() {
+            if (mImpressionTracker != null && mScrollState == SCROLL_STATE_IDLE) {
+                flushImpressions(SystemClock.uptimeMillis());
+            }
+        }
+    };
+
+    /**
+     * 设置曝光监听
+     *
+     * @param listener 曝光监听，null 表示关闭曝光统计
+     */
+    public void setImpressionListener(ImpressionListener listener) {
+        mImpressionListener = listener;
+        if (listener == null) {
+            mImpressionTracker = null;
+            if (mRecyclerView != null) {
+                mRecyclerView.removeCallbacks(mImpressionFlushRunnable);
+            }
+            return;
+        }
+        if (mImpressionTracker == null) {
+            mImpressionTracker = new PagerImpressionTracker(mGeometry);
+            mImpressionTracker.setThreshold(mImpressionVisibleFraction, mImpressionDwellMillis);
+            mImpressionTracker.setListener(new PagerImpressionTracker.Listener() {
+                @Override
+                public void onImpressions(int[] positions, long[] dwellMillis, int count) {
+                    if (mImpressionListener != null) {
+                        mImpressionListener.onImpressions(positions, dwellMillis, count);
+                    }
+                }
+            });
+            if (getChildCount() > 0) {
+                updateImpressions(getScrollOffset());
+            }
+        }
+    }
+
+    /**
+     * 设置曝光条件，条目在滚动方向上的可见比例不低于 minVisibleFraction 并持续 minDwellMillis 后记为曝光
+     *
+     * @param minVisibleFraction 最小可见比例，范围 (0, 1]，默认 0.5
+     * @param minDwellMillis     最短显示时间(毫秒)，默认 1000
+     */
+    public void setImpressionThreshold(float minVisibleFraction,
+                                       @IntRange(from = 0) long minDwellMillis) {
+        if (minVisibleFraction <= 0 || minVisibleFraction > 1 || minDwellMillis < 0) {
+            throw new IllegalArgumentException("invalid impression threshold");
+        }
+        mImpressionVisibleFraction = minVisibleFraction;
+        mImpressionDwellMillis = minDwellMillis;
+        if (mImpressionTracker != null) {
+            mImpressionTracker.setThreshold(minVisibleFraction, minDwellMillis);
+        }
+    }
+
+    /**
+     * 更新曝光统计，没有处于滚动状态时(停止滚动、布局完成或直接跳转)批量回调
+     *
+     * @param offset 滚动方向上的偏移量
+     */
+    private void updateImpressions(long offset) {
+        if (mImpressionTracker == null) return;
+        long now = SystemClock.uptimeMillis();
+        mImpressionTracker.update(offset, now);
+        if (mScrollState == SCROLL_STATE_IDLE) {
+            flushImpressions(now);
+        }
+    }
+
+    /**
+     * 批量回调已经达到条件的曝光，并在下一个条目达到条件时再次检查
+     *
+     * @param now 当前时间(毫秒)
+     */
+    private void flushImpressions(long now) {
+        long delay = mImpressionTracker.flush(now);
+        if (mRecyclerView != null) {
+            mRecyclerView.removeCallbacks(mImpressionFlushRunnable);
+            if (delay >= 0) {
+                mRecyclerView.postDelayed(mImpressionFlushRunnable, delay);
+            }
+        }
+    }
+
+    /**
+     * 条目位置变化，清除曝光统计的状态
+     */
+    private void resetImpressions() {
+        if (mImpressionTracker != null) {
+            mImpressionTracker.reset();
+        }
+    }
+
+    /**
+     * 曝光监听
+     */
+    public interface ImpressionListener {
+        /**
+         * 批量曝光，在滚动停止时(或停止后条目达到显示时间时)回调，
+         * 数组会被复用，只在回调期间有效，需要保存时请复制
+         *
+         * @param positions   曝光的条目下标
+         * @param dwellMillis 达到曝光条件时条目已经显示的时间(毫秒)
+         * @param count       有效数量
+         */
+        void onImpressions(int[] positions, long[] dwellMillis, int count);
+    }
+
+    //--- 对外接口 ----------------------------------------------------------------------------------
+
+    private PageListener mPageListener = null;
+
+    public void setPageListener(PageListener pageListener) {
+        mPageListener = pageListener;
+    }
+
+    public interface PageListener {
+        /**
          * 页面总数量变化
          *
          * @param pageSize 页面总数
@@ -765,13 +2589,55 @@ public class PagerGridLayoutManager extends RecyclerView.LayoutManager
 
     //--- 日志处理 ----------------------------------------------------------------------------------
 
+    // 日志关闭时不能产生任何字符串拼接，所以数值作为参数传入，在判断之后再拼接
+
     private void Logi(String msg) {
         if (!PagerConfig.isShowLog()) return;
         Log.i(TAG, msg);
     }
 
+    private void Logi(String msg, int value) {
+        if (!PagerConfig.isShowLog()) return;
+        Log.i(TAG, msg + value);
+    }
+
+    private void Logi(String msg, long value1, long value2) {
+        if (!PagerConfig.isShowLog()) return;
+        Log.i(TAG, msg + value1 + ":" + value2);
+    }
+
     private void Loge(String msg) {
         if (!PagerConfig.isShowLog()) return;
         Log.e(TAG, msg);
     }
+
+    private void Loge(String msg, int value) {
+        if (!PagerConfig.isShowLog()) return;
+        Log.e(TAG, msg + value);
+    }
+
+    private void Loge(String msg, long value1, long value2) {
+        if (!PagerConfig.isShowLog()) return;
+        Log.e(TAG, msg + value1 + ":" + value2);
+    }
+
+    //--- 性能追踪 ----------------------------------------------------------------------------------
+
+    private static final String TRACE_LAYOUT = "PagerGrid.onLayoutChildren";
+    private static final String TRACE_FILL = "PagerGrid.fill";
+    private static final String TRACE_SCROLL = "PagerGrid.scroll";
+
+    private static void beginTrace(String sectionName) {
+        if (PagerConfig.isTraceEnabled()
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    private static void endTrace() {
+        if (PagerConfig.isTraceEnabled()
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
 }
@@ -25,24 +25,45 @@ package com.gcssloop.widget;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.View;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
 
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearSmoothScroller;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.SnapHelper;
 
+import com.gcssloop.widget.core.PagerSpring;
+
 import static android.content.ContentValues.TAG;
 
 /**
  * 作用：分页居中工具
  * 作者：GcsSloop
- * 摘要：每次只滚动一个页面
+ * 摘要：
+ * 1. 默认每次只滚动一个页面
+ * 2. 设置 {@link #setMaxFlingPages(int)} 后，根据快速滑动的速度和减速度预计滑动距离，一次滚动多个页面，
+ *    目标页面较远时直接跳转到相邻页面再滚动，不布局中间的页面
+ * 3. 设置 {@link #setSpringSnapEnabled(boolean)} 后使用弹簧对齐，滚动时间由速度和距离决定，
+ *    始终复用同一个弹簧和插值器，可以在滚动过程中通过 {@link #snapToPage(int)} 更换目标
  */
 public class PagerGridSnapHelper extends SnapHelper {
     private static final float MILLISECONDS_PER_INCH = 60f; // 影响滚动速度，数值越大，速度越慢
+    private static final int DIRECT_SCROLL_PAGES = 2;       // 不超过该页数时直接滚动，否则跳过中间页面
     private RecyclerView mRecyclerView;                     // RecyclerView
     private int mThreshold = 1000;                          // 阀值，滚动速度超过该阀值才会触发滚动
+    private int mMaxFlingPages = 1;                         // 一次快速滑动最多滚动的页数
+
+    private boolean mSpringSnap = false;                    // 是否使用弹簧对齐
+    private final PagerSpring mSpring = new PagerSpring();  // 弹簧(复用)
+    private long mSpringStartTime = 0;                      // 弹簧开始运动的时间
+    private final Interpolator mSpringInterpolator = new Interpolator() {
+        @Override public float getInterpolation(float input) {
+            return mSpring.getProgress(input);
+        }
+    };
 
     /**
      * 用于将滚动工具和 Recycler 绑定
@@ -68,7 +89,7 @@ public class PagerGridSnapHelper extends SnapHelper {
     public int[] calculateDistanceToFinalSnap(@NonNull RecyclerView.LayoutManager layoutManager,
                                               @NonNull View targetView) {
         int pos = layoutManager.getPosition(targetView);
-        Loge("findTargetSnapPosition, pos = " + pos);
+        Loge("findTargetSnapPosition, pos = ", pos);
         int[] offset = new int[2];
         if (layoutManager instanceof PagerGridLayoutManager) {
             PagerGridLayoutManager manager = (PagerGridLayoutManager) layoutManager;
@@ -103,28 +124,45 @@ public class PagerGridSnapHelper extends SnapHelper {
     @Override
     public int findTargetSnapPosition(RecyclerView.LayoutManager layoutManager,
                                       int velocityX, int velocityY) {
-        int target = 0;
-        Loge("findTargetSnapPosition, velocityX = " + velocityX + ", velocityY" + velocityY);
-        if (null != layoutManager && layoutManager instanceof PagerGridLayoutManager) {
-            PagerGridLayoutManager manager = (PagerGridLayoutManager) layoutManager;
-            if (manager.canScrollHorizontally()) {
-                if (velocityX > mThreshold) {
-                    target = manager.findNextPageFirstPos();
-                } else if (velocityX < -mThreshold) {
-                    target = manager.findPrePageFirstPos();
-                }
-            } else if (manager.canScrollVertically()) {
-                if (velocityY > mThreshold) {
-                    target = manager.findNextPageFirstPos();
-                } else if (velocityY < -mThreshold) {
-                    target = manager.findPrePageFirstPos();
-                }
-            }
+        int target = RecyclerView.NO_POSITION;
+        Loge("findTargetSnapPosition, velocity = ", velocityX, velocityY);
+        int page = findTargetSnapPage(layoutManager, velocityX, velocityY);
+        if (page >= 0) {
+            target = page * ((PagerGridLayoutManager) layoutManager).getOnePageSize();
         }
-        Loge("findTargetSnapPosition, target = " + target);
+        Loge("findTargetSnapPosition, target = ", target);
         return target;
     }
 
+    /**
+     * 获取快速滑动的目标页面
+     * 滚动方向上的速度没有超过阀值时不处理(返回 -1)，交给 RecyclerView 正常滚动后再对齐，
+     * 避免慢速滑动或者沿另一个方向滑动时回到第一页
+     *
+     * @param layoutManager 布局管理器
+     * @param velocityX     X 轴滚动速率
+     * @param velocityY     Y 轴滚动速率
+     * @return 目标页码，-1 表示不处理
+     */
+    private int findTargetSnapPage(RecyclerView.LayoutManager layoutManager,
+                                   int velocityX, int velocityY) {
+        if (!(layoutManager instanceof PagerGridLayoutManager)) {
+            return -1;
+        }
+        PagerGridLayoutManager manager = (PagerGridLayoutManager) layoutManager;
+        int velocity = manager.canScrollHorizontally() ? velocityX : velocityY;
+        if (Math.abs(velocity) <= mThreshold) {
+            return -1;
+        }
+        int distance = 0;
+        if (mMaxFlingPages > 1) {
+            // 按照 RecyclerView 的减速度预计滑动距离
+            int[] distances = calculateScrollDistance(velocityX, velocityY);
+            distance = manager.canScrollHorizontally() ? distances[0] : distances[1];
+        }
+        return manager.findFlingTargetPage(velocity, distance, mMaxFlingPages);
+    }
+
     /**
      * 一扔(快速滚动)
      *
@@ -143,7 +181,7 @@ public class PagerGridSnapHelper extends SnapHelper {
             return false;
         }
         int minFlingVelocity = mThreshold;
-        Loge("minFlingVelocity = " + minFlingVelocity);
+        Loge("minFlingVelocity = ", minFlingVelocity);
         return (Math.abs(velocityY) > minFlingVelocity || Math.abs(velocityX) > minFlingVelocity)
                 && snapFromFling(layoutManager, velocityX, velocityY);
     }
@@ -162,21 +200,120 @@ public class PagerGridSnapHelper extends SnapHelper {
             return false;
         }
 
-        RecyclerView.SmoothScroller smoothScroller = createSnapScroller(layoutManager);
-        if (smoothScroller == null) {
+        int targetPage = findTargetSnapPage(layoutManager, velocityX, velocityY);
+        if (targetPage < 0) {
             return false;
         }
+        PagerGridLayoutManager manager = (PagerGridLayoutManager) layoutManager;
+        if (mSpringSnap) {
+            int velocity = manager.canScrollHorizontally() ? velocityX : velocityY;
+            springToPage(manager, targetPage, velocity);
+            return true;
+        }
+        if (Math.abs(targetPage - manager.getCurrentPageIndex()) > DIRECT_SCROLL_PAGES) {
+            // 目标页面较远，直接跳转到相邻页面再滚动，不布局中间的页面
+            manager.smoothScrollToPage(targetPage);
+            return true;
+        }
 
-        int targetPosition = findTargetSnapPosition(layoutManager, velocityX, velocityY);
-        if (targetPosition == RecyclerView.NO_POSITION) {
+        RecyclerView.SmoothScroller smoothScroller = createSnapScroller(layoutManager);
+        if (smoothScroller == null) {
             return false;
         }
-
-        smoothScroller.setTargetPosition(targetPosition);
+        smoothScroller.setTargetPosition(targetPage * manager.getOnePageSize());
         layoutManager.startSmoothScroll(smoothScroller);
         return true;
     }
 
+    /**
+     * 设置一次快速滑动最多滚动的页数
+     *
+     * @param maxFlingPages 最多滚动的页数，1 表示每次只滚动一页
+     */
+    public void setMaxFlingPages(@IntRange(from = 1) int maxFlingPages) {
+        mMaxFlingPages = Math.max(maxFlingPages, 1);
+    }
+
+    /**
+     * 设置是否使用弹簧对齐
+     *
+     * @param enabled true：使用弹簧，false：使用 LinearSmoothScroller
+     */
+    public void setSpringSnapEnabled(boolean enabled) {
+        mSpringSnap = enabled;
+    }
+
+    /**
+     * 设置弹簧参数
+     *
+     * @param stiffness    刚度，越大越快，默认 {@link PagerSpring#STIFFNESS_MEDIUM}
+     * @param dampingRatio 阻尼比，小于 1 时会在页面边界附近来回摆动，默认不摆动
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        mSpring.setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * 使用弹簧滚动到指定页面
+     * 正在弹簧对齐时直接更换目标，保留当前速度，不会重新开始
+     *
+     * @param pageIndex 页面下标
+     */
+    public void snapToPage(int pageIndex) {
+        if (mRecyclerView == null
+                || !(mRecyclerView.getLayoutManager() instanceof PagerGridLayoutManager)) {
+            return;
+        }
+        PagerGridLayoutManager manager = (PagerGridLayoutManager) mRecyclerView.getLayoutManager();
+        if (pageIndex < 0 || pageIndex >= manager.getTotalPageCount()) {
+            return;
+        }
+        float velocity = 0;
+        long elapsed = AnimationUtils.currentAnimationTimeMillis() - mSpringStartTime;
+        if (mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_SETTLING
+                && elapsed < mSpring.getDuration()) {
+            velocity = (float) mSpring.getVelocity(elapsed);
+        }
+        springToPage(manager, pageIndex, velocity);
+    }
+
+    /**
+     * 以指定的初始速度弹簧滚动到页面
+     * 目标页面较远时先直接跳转到相邻页面，跳转不会停止当前滚动，滚动状态保持不变
+     *
+     * @param manager   布局管理器
+     * @param pageIndex 页面下标
+     * @param velocity  初始速度(像素/秒)
+     */
+    private void springToPage(PagerGridLayoutManager manager, int pageIndex, float velocity) {
+        int currentPage = manager.getCurrentPageIndex();
+        if (pageIndex - currentPage > DIRECT_SCROLL_PAGES) {
+            manager.jumpToPage(pageIndex - 1);
+        } else if (currentPage - pageIndex > DIRECT_SCROLL_PAGES) {
+            manager.jumpToPage(pageIndex + 1);
+        }
+        // 跳转后最多相距 DIRECT_SCROLL_PAGES + 1 页，距离不会超出 int 范围
+        int distance = (int) (manager.getScrollOffsetOfPage(pageIndex)
+                - manager.getScrollOffsetLong());
+        if (distance == 0) {
+            return;
+        }
+        // 每次都从当前位置开始，所以弹簧以 0 为起点
+        mSpring.start(0, distance, velocity);
+        int duration = (int) mSpring.getDuration();
+        if (duration <= 0) {
+            mRecyclerView.scrollBy(manager.canScrollHorizontally() ? distance : 0,
+                                   manager.canScrollVertically() ? distance : 0);
+            return;
+        }
+        mSpringStartTime = AnimationUtils.currentAnimationTimeMillis();
+        Logi("spring distance = ", distance, duration);
+        // 始终使用同一个插值器，RecyclerView 会复用内部的 OverScroller
+        mRecyclerView.smoothScrollBy(manager.canScrollHorizontally() ? distance : 0,
+                                     manager.canScrollVertically() ? distance : 0,
+                                     mSpringInterpolator, duration);
+    }
+
     /**
      * 通过自定义 LinearSmoothScroller 来控制速度
      *
@@ -194,8 +331,7 @@ public class PagerGridSnapHelper extends SnapHelper {
                                                                    targetView);
                 final int dx = snapDistances[0];
                 final int dy = snapDistances[1];
-                Logi("dx = " + dx);
-                Logi("dy = " + dy);
+                Logi("snap distance = ", dx, dy);
                 final int time = calculateTimeForDeceleration(Math.max(Math.abs(dx), Math.abs(dy)));
                 if (time > 0) {
                     action.update(dx, dy, time, mDecelerateInterpolator);
@@ -211,13 +347,18 @@ public class PagerGridSnapHelper extends SnapHelper {
 
     //--- 处理日志 ----------------------------------------------------------------------------------
 
-    private void Logi(String msg) {
+    private void Logi(String msg, int value1, int value2) {
+        if (!PagerConfig.isShowLog()) return;
+        Log.i(TAG, msg + value1 + ":" + value2);
+    }
+
+    private void Loge(String msg, int value) {
         if (!PagerConfig.isShowLog()) return;
-        Log.i(TAG, msg);
+        Log.e(TAG, msg + value);
     }
 
-    private void Loge(String msg) {
+    private void Loge(String msg, int value1, int value2) {
         if (!PagerConfig.isShowLog()) return;
-        Log.e(TAG, msg);
+        Log.e(TAG, msg + value1 + ":" + value2);
     }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * 作用：布局统计
+ * 作者：GcsSloop
+ * 摘要：记录 PagerGridLayoutManager 的布局、填充、测量、回收等次数，用于性能分析与测试。
+ * 默认关闭，关闭时布局管理器只做一次布尔判断，不会产生额外开销。
+ */
+public class PagerMetrics {
+    boolean mEnabled = false;       // 是否开启统计
+
+    long mLayoutCount = 0;          // onLayoutChildren 次数
+    long mScrollCount = 0;          // 滚动次数
+    long mFillCount = 0;            // 实际执行填充的次数
+    long mSkippedFillCount = 0;     // 跳过填充的次数
+    long mViewFetchCount = 0;       // 获取View的次数(可能触发创建或绑定)
+    long mMeasureCount = 0;         // 测量View的次数
+    long mSkippedMeasureCount = 0;  // 跳过测量的次数
+    long mChildLayoutCount = 0;     // 布局View的次数
+    long mRecycleCount = 0;         // 回收View的次数
+    long mSlotReuseCount = 0;       // 同一槽位复用View的次数
+    long mCreateCount = 0;          // 创建 ViewHolder 的次数(由 Adapter 上报)
+    long mBindCount = 0;            // 绑定 ViewHolder 的次数(由 Adapter 上报)
+
+    private long mFrameTime = -1;   // 当前帧的时间
+    private int mFrameFillCount = 0;        // 当前帧的填充次数
+    private int mMaxFillCountPerFrame = 0;  // 单帧最多的填充次数
+
+    /**
+     * 判断是否开启统计
+     *
+     * @return true 开启，false 关闭
+     */
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * 设置是否开启统计
+     *
+     * @param enabled 是否开启
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * 记录一次填充，同时统计单帧内的填充次数
+     */
+    void recordFill() {
+        mFillCount++;
+        long frameTime = AnimationUtils.currentAnimationTimeMillis();
+        if (frameTime == mFrameTime) {
+            mFrameFillCount++;
+        } else {
+            mFrameTime = frameTime;
+            mFrameFillCount = 1;
+        }
+        if (mFrameFillCount > mMaxFillCountPerFrame) {
+            mMaxFillCountPerFrame = mFrameFillCount;
+        }
+    }
+
+    /**
+     * 上报一次 onCreateViewHolder，布局管理器无法直接感知创建，需要 Adapter 调用
+     */
+    public void recordCreate() {
+        if (mEnabled) mCreateCount++;
+    }
+
+    /**
+     * 上报一次 onBindViewHolder，布局管理器无法直接感知绑定，需要 Adapter 调用
+     */
+    public void recordBind() {
+        if (mEnabled) mBindCount++;
+    }
+
+    /**
+     * 获取 onLayoutChildren 的次数
+     *
+     * @return 布局次数
+     */
+    public long getLayoutCount() {
+        return mLayoutCount;
+    }
+
+    /**
+     * 获取滚动的次数
+     *
+     * @return 滚动次数
+     */
+    public long getScrollCount() {
+        return mScrollCount;
+    }
+
+    /**
+     * 获取实际执行填充的次数
+     *
+     * @return 填充次数
+     */
+    public long getFillCount() {
+        return mFillCount;
+    }
+
+    /**
+     * 获取由于显示的行(列)没有变化而跳过填充的次数
+     *
+     * @return 跳过次数
+     */
+    public long getSkippedFillCount() {
+        return mSkippedFillCount;
+    }
+
+    /**
+     * 获取单帧内最多的填充次数
+     *
+     * @return 填充次数
+     */
+    public int getMaxFillCountPerFrame() {
+        return mMaxFillCountPerFrame;
+    }
+
+    /**
+     * 获取从 Recycler 中获取View的次数，每次获取都可能触发 onCreateViewHolder 或 onBindViewHolder
+     *
+     * @return 获取次数
+     */
+    public long getViewFetchCount() {
+        return mViewFetchCount;
+    }
+
+    /**
+     * 获取测量View的次数
+     *
+     * @return 测量次数
+     */
+    public long getMeasureCount() {
+        return mMeasureCount;
+    }
+
+    /**
+     * 获取由于测量规格没有变化而跳过测量的次数
+     *
+     * @return 跳过次数
+     */
+    public long getSkippedMeasureCount() {
+        return mSkippedMeasureCount;
+    }
+
+    /**
+     * 获取布局View的次数
+     *
+     * @return 布局次数
+     */
+    public long getChildLayoutCount() {
+        return mChildLayoutCount;
+    }
+
+    /**
+     * 获取回收View的次数
+     *
+     * @return 回收次数
+     */
+    public long getRecycleCount() {
+        return mRecycleCount;
+    }
+
+    /**
+     * 获取同一槽位复用View的次数，需要开启 {@link PagerGridLayoutManager#setSlotAffineRecycling(boolean)}
+     *
+     * @return 复用次数
+     */
+    public long getSlotReuseCount() {
+        return mSlotReuseCount;
+    }
+
+    /**
+     * 获取 Adapter 上报的创建次数
+     *
+     * @return 创建次数
+     */
+    public long getCreateCount() {
+        return mCreateCount;
+    }
+
+    /**
+     * 获取 Adapter 上报的绑定次数
+     *
+     * @return 绑定次数
+     */
+    public long getBindCount() {
+        return mBindCount;
+    }
+
+    /**
+     * 重置所有计数
+     */
+    public void reset() {
+        mLayoutCount = 0;
+        mScrollCount = 0;
+        mFillCount = 0;
+        mSkippedFillCount = 0;
+        mViewFetchCount = 0;
+        mMeasureCount = 0;
+        mSkippedMeasureCount = 0;
+        mChildLayoutCount = 0;
+        mRecycleCount = 0;
+        mSlotReuseCount = 0;
+        mCreateCount = 0;
+        mBindCount = 0;
+        mFrameTime = -1;
+        mFrameFillCount = 0;
+        mMaxFillCountPerFrame = 0;
+    }
+}
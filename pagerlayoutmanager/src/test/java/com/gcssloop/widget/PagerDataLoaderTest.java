@@ -0,0 +1,312 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 作用：PagerDataLoader 单元测试
+ * 作者：GcsSloop
+ * 摘要：使用带延迟的内存数据后端，按模拟时钟推进加载，验证占位、预加载、取消和 LRU 淘汰，
+ * PagerDataLoader 使用 SparseArray 保存页面，所以需要 Robolectric
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PagerDataLoaderTest {
+    private static final int PAGE_SIZE = 6;
+    private static final int MAX_PAGES = 3;
+    private static final int LATENCY = 5;               // 模拟的加载延迟(时钟单位)
+
+    /**
+     * 带延迟的内存数据后端，条目数据就是条目下标，调用 advance 推进时钟
+     */
+    private static class FakeBackend implements PagerDataLoader.Backend<Integer> {
+        private final int mItemCount;
+        private final List<Request> mPending = new ArrayList<>();
+        final List<Integer> mRequested = new ArrayList<>();
+        final HashSet<Integer> mCancelled = new HashSet<>();
+        boolean mIgnoreCancel = false;      // 模拟无法取消的请求，取消后结果仍然会返回
+        long mTime = 0;
+
+        private static class Request {
+            int mPage;
+            int mFirstPos;
+            int mCount;
+            long mDueTime;
+            PagerDataLoader.Callback<Integer> mCallback;
+        }
+
+        FakeBackend(int itemCount) {
+            mItemCount = itemCount;
+        }
+
+        @Override
+        public void loadPage(int pageIndex, int firstPos, int count,
+                             PagerDataLoader.Callback<Integer> callback) {
+            Request request = new Request();
+            request.mPage = pageIndex;
+            request.mFirstPos = firstPos;
+            request.mCount = count;
+            request.mDueTime = mTime + LATENCY;
+            request.mCallback = callback;
+            mPending.add(request);
+            mRequested.add(pageIndex);
+        }
+
+        @Override
+        public void cancelPage(int pageIndex) {
+            mCancelled.add(pageIndex);
+            if (mIgnoreCancel) return;
+            for (Iterator<Request> it = mPending.iterator(); it.hasNext(); ) {
+                if (it.next().mPage == pageIndex) {
+                    it.remove();
+                }
+            }
+        }
+
+        void advance(long time) {
+            mTime += time;
+            for (Iterator<Request> it = mPending.iterator(); it.hasNext(); ) {
+                Request request = it.next();
+                if (request.mDueTime <= mTime) {
+                    it.remove();
+                    List<Integer> items = new ArrayList<>();
+                    int end = Math.min(request.mFirstPos + request.mCount, mItemCount);
+                    for (int i = request.mFirstPos; i < end; i++) {
+                        items.add(i);
+                    }
+                    request.mCallback.onPageLoaded(items);
+                }
+            }
+        }
+
+        int pendingCount() {
+            return mPending.size();
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+        @Override public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private FakeBackend mBackend;
+    private PagerDataLoader<Integer> mLoader;
+    private final List<Integer> mLoadedPages = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mBackend = new FakeBackend(100);
+        mLoader = new PagerDataLoader<>(mBackend, PAGE_SIZE, MAX_PAGES, DIRECT);
+        mLoadedPages.clear();
+        mLoader.setOnPageLoadedListener(new PagerDataLoader.OnPageLoadedListener() {
+            @Override public void onPageLoaded(int pageIndex, int firstPos, int lastPos) {
+                mLoadedPages.add(pageIndex);
+            }
+        });
+    }
+
+    private void appear(int page) {
+        mLoader.onPageAppeared(page, page * PAGE_SIZE, page * PAGE_SIZE + PAGE_SIZE - 1);
+    }
+
+    private void disappear(int page) {
+        mLoader.onPageDisappeared(page, page * PAGE_SIZE, page * PAGE_SIZE + PAGE_SIZE - 1);
+    }
+
+    @Test
+    public void placeholderUntilLoaded() {
+        assertNull(mLoader.getItem(7));
+        assertNull(mLoader.getItem(8));
+        assertEquals("同一页只请求一次", 1, mBackend.mRequested.size());
+
+        mBackend.advance(LATENCY - 1);
+        assertNull(mLoader.getItem(7));
+
+        mBackend.advance(1);
+        assertEquals(Integer.valueOf(7), mLoader.getItem(7));
+        assertEquals(1, mLoadedPages.size());
+        assertEquals(Integer.valueOf(1), mLoadedPages.get(0));
+    }
+
+    @Test
+    public void willAppearLoadsAhead() {
+        appear(0);
+        mLoader.onPageWillAppear(1, PAGE_SIZE, 2 * PAGE_SIZE - 1);
+        mBackend.advance(LATENCY);
+        // 滑动到下一页时数据已经就绪，不会出现占位
+        assertNotNull(mLoader.getItem(PAGE_SIZE));
+        assertEquals(2, mBackend.mRequested.size());
+    }
+
+    @Test
+    public void disappearCancelsPendingLoad() {
+        mLoader.onPageWillAppear(4, 4 * PAGE_SIZE, 5 * PAGE_SIZE - 1);
+        disappear(4);
+        assertTrue(mBackend.mCancelled.contains(4));
+        assertEquals(0, mBackend.pendingCount());
+        mBackend.advance(LATENCY);
+        assertFalse(mLoader.isPageLoaded(4));
+        assertTrue(mLoadedPages.isEmpty());
+    }
+
+    @Test
+    public void lateResultOfCancelledRequestIsIgnored() {
+        mBackend.mIgnoreCancel = true;
+        mLoader.onPageWillAppear(4, 4 * PAGE_SIZE, 5 * PAGE_SIZE - 1);
+        disappear(4);
+        mBackend.advance(2);
+        appear(4);          // 同一页重新请求
+        mBackend.advance(LATENCY - 2);
+        // 第一次请求的结果迟到，不能当作第二次请求的结果
+        assertFalse(mLoader.isPageLoaded(4));
+        assertTrue(mLoadedPages.isEmpty());
+
+        mBackend.advance(2);
+        assertTrue(mLoader.isPageLoaded(4));
+        assertEquals(1, mLoadedPages.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFarPages() {
+        // 依次翻过 10 页，每次只显示一页
+        for (int page = 0; page < 10; page++) {
+            appear(page);
+            mBackend.advance(LATENCY);
+            disappear(page - 1);
+            assertTrue(mLoader.getLoadedPageCount() <= MAX_PAGES);
+        }
+        assertTrue(mLoader.isPageLoaded(9));
+        assertTrue(mLoader.isPageLoaded(8));
+        assertFalse(mLoader.isPageLoaded(0));
+
+        // 回到第 8 页后它成为最近使用的页面，淘汰时保留
+        assertNotNull(mLoader.getItem(8 * PAGE_SIZE));
+        appear(10);
+        mBackend.advance(LATENCY);
+        assertTrue(mLoader.isPageLoaded(8));
+        assertFalse(mLoader.isPageLoaded(7));
+    }
+
+    @Test
+    public void visiblePagesAreNeverEvicted() {
+        // 同时显示的页面超过容量时，显示中的页面全部保留
+        for (int page = 0; page < MAX_PAGES + 2; page++) {
+            appear(page);
+        }
+        mBackend.advance(LATENCY);
+        assertEquals(MAX_PAGES + 2, mLoader.getLoadedPageCount());
+        for (int page = 0; page < MAX_PAGES + 2; page++) {
+            disappear(page);
+        }
+        appear(20);
+        mBackend.advance(LATENCY);
+        assertEquals(MAX_PAGES, mLoader.getLoadedPageCount());
+        assertTrue(mLoader.isPageLoaded(20));
+    }
+
+    @Test
+    public void invalidateDropsStaleResults() {
+        appear(0);
+        mLoader.invalidate();
+        mBackend.advance(LATENCY);
+        assertFalse(mLoader.isPageLoaded(0));
+        assertNull(mLoader.getItem(0));
+        mBackend.advance(LATENCY);
+        assertTrue(mLoader.isPageLoaded(0));
+    }
+
+    @Test
+    public void lastPageMayBeShort() {
+        appear(16);     // 100 个条目，最后一页只有 4 个
+        mBackend.advance(LATENCY);
+        assertEquals(Integer.valueOf(99), mLoader.getItem(99));
+        assertNull(mLoader.getItem(100));
+    }
+
+    @Test(timeout = 5000)
+    public void backgroundBackendDeliversOnCallbackThread() throws InterruptedException {
+        // 后端在后台线程延迟回调，结果投递到模拟的主线程队列
+        final LinkedBlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+        final Thread testThread = Thread.currentThread();
+        PagerDataLoader<Integer> loader = new PagerDataLoader<>(
+                new PagerDataLoader.Backend<Integer>() {
+                    @Override
+                    public void loadPage(final int pageIndex, final int firstPos, final int count,
+                                         final PagerDataLoader.Callback<Integer> callback) {
+                        new Thread(new Runnable() {
+                            @Override public void run() {
+                                try {
+                                    Thread.sleep(20);
+                                } catch (InterruptedException ignored) {
+                                }
+                                List<Integer> items = new ArrayList<>();
+                                for (int i = 0; i < count; i++) {
+                                    items.add(firstPos + i);
+                                }
+                                callback.onPageLoaded(items);
+                            }
+                        }).start();
+                    }
+
+                    @Override public void cancelPage(int pageIndex) {
+                    }
+                }, PAGE_SIZE, MAX_PAGES, new Executor() {
+                    @Override public void execute(Runnable command) {
+                        mainQueue.add(command);
+                    }
+                });
+        final boolean[] onMain = {false};
+        loader.setOnPageLoadedListener(new PagerDataLoader.OnPageLoadedListener() {
+            @Override public void onPageLoaded(int pageIndex, int firstPos, int lastPos) {
+                onMain[0] = Thread.currentThread() == testThread;
+            }
+        });
+        assertNull(loader.getItem(3));
+        Runnable delivery = mainQueue.poll(4, TimeUnit.SECONDS);
+        assertNotNull(delivery);
+        assertFalse(loader.isPageLoaded(0));
+        delivery.run();
+        assertTrue(onMain[0]);
+        assertEquals(Integer.valueOf(3), loader.getItem(3));
+    }
+}
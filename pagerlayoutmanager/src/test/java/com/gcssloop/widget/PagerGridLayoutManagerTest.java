@@ -0,0 +1,1041 @@
+/*
+ * Copyright 2017 GcsSloop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Last modified 2026-10-16 10:12:05
+ *
+ * GitHub: https://github.com/GcsSloop
+ * WeiBo: http://weibo.com/GcsSloop
+ * WebSite: http://www.gcssloop.com
+ */
+
+package com.gcssloop.widget;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.Parcel;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 作用：PagerGridLayoutManager 滚动回归测试
+ * 作者：GcsSloop
+ * 摘要：模拟拖动、快速滑动和页面跳转，统计每次翻页的创建、绑定、测量和填充次数，
+ * 任何导致一次翻页绑定超过 "可见条目 + 一列" 的改动都会导致测试失败。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PagerGridLayoutManagerTest {
+    private static final int ROWS = 2;
+    private static final int COLUMNS = 3;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+    private static final int ITEM_WIDTH = WIDTH / COLUMNS;
+
+    private static final int VISIBLE = ROWS * COLUMNS;          // 一页可见的条目数
+    private static final int ONE_COLUMN = ROWS;                 // 一列的条目数
+
+    private Activity mActivity;
+    private RecyclerView mRecyclerView;
+    private PagerGridLayoutManager mLayoutManager;
+    private CountingAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mRecyclerView = new RecyclerView(mActivity);
+        mLayoutManager = new PagerGridLayoutManager(ROWS, COLUMNS,
+                                                    PagerGridLayoutManager.HORIZONTAL);
+        mLayoutManager.getMetrics().setEnabled(true);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mAdapter = new CountingAdapter(VISIBLE * 100);
+        mRecyclerView.setAdapter(mAdapter);
+        mActivity.setContentView(mRecyclerView, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        layout();
+    }
+
+    @Test
+    public void initialLayoutBindsVisibleCellsPlusOneColumn() {
+        assertEquals(VISIBLE + ONE_COLUMN, mAdapter.mBindCount);
+        assertEquals(VISIBLE + ONE_COLUMN, mRecyclerView.getChildCount());
+    }
+
+    @Test
+    public void dragThroughPagesBindsAtMostOnePagePerFlip() {
+        for (int page = 1; page <= 5; page++) {
+            resetCounters();
+            drag(WIDTH, 24);
+            assertEquals(page * WIDTH, mLayoutManager.getOffsetX());
+            assertTrue("binds per flip = " + mAdapter.mBindCount,
+                       mAdapter.mBindCount <= VISIBLE + ONE_COLUMN);
+            assertTrue("fills per frame = " + metrics().getMaxFillCountPerFrame(),
+                       metrics().getMaxFillCountPerFrame() <= 1);
+        }
+    }
+
+    @Test
+    public void dragBackDoesNotRebindMoreThanOnePage() {
+        drag(WIDTH * 3, 24);
+        resetCounters();
+        drag(-WIDTH, 24);
+        assertEquals(2 * WIDTH, mLayoutManager.getOffsetX());
+        assertTrue("binds = " + mAdapter.mBindCount, mAdapter.mBindCount <= VISIBLE + ONE_COLUMN);
+    }
+
+    @Test
+    public void warmUpAvoidsCreatingViewsOnFirstSwipe() {
+        mLayoutManager.warmUpViewHolders(2);
+        shadowOf(Looper.getMainLooper()).idle();
+        resetCounters();
+
+        drag(WIDTH, 24);
+        assertEquals(0, mAdapter.mCreateCount);
+        assertTrue(mAdapter.mBindCount > 0);
+    }
+
+    @Test
+    public void warmUpNeverLowersPoolCapacity() {
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        pool.setMaxRecycledViews(0, 30);    // 应用设置的容量(例如多个页面共享缓存池)
+        mLayoutManager.warmUpViewHolders(1);
+        shadowOf(Looper.getMainLooper()).idle();
+        int warmed = pool.getRecycledViewCount(0);
+        assertTrue("warmed = " + warmed, warmed > 0);
+
+        for (int i = 0; i < 30; i++) {
+            pool.putRecycledView(mAdapter.createViewHolder(mRecyclerView, 0));
+        }
+        assertEquals(30, pool.getRecycledViewCount(0));
+    }
+
+    @Test
+    public void warmUpRaisesFullPoolCapacity() {
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        pool.setMaxRecycledViews(0, 2);
+        mLayoutManager.warmUpViewHolders(2);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTrue(pool.getRecycledViewCount(0) > 2);
+    }
+
+    @Test
+    public void backgroundWarmUpInflatesAgainstDetachedParent() {
+        mLayoutManager.setWarmUpExecutor(new Executor() {
+            @Override public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        resetCounters();
+        mLayoutManager.warmUpViewHolders(1);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertTrue(mAdapter.mCreateCount > 0);
+        assertTrue(mRecyclerView.getRecycledViewPool().getRecycledViewCount(0) > 0);
+        // 后台创建时不使用已经显示的 RecyclerView 作为 parent
+        assertTrue(mAdapter.mLastCreateParent != mRecyclerView);
+        assertTrue(mAdapter.mLastCreateParent.getParent() == null);
+
+        // 预创建的条目可以正常添加到 RecyclerView
+        resetCounters();
+        drag(WIDTH, 24);
+        assertEquals(WIDTH, mLayoutManager.getOffsetX());
+        assertEquals(0, mAdapter.mCreateCount);
+    }
+
+    @Test
+    public void warmPageCacheAvoidsRebindWhenSwipingBack() {
+        mLayoutManager.setWarmPageCount(1);
+        drag(WIDTH, 24);
+        resetCounters();
+
+        drag(-WIDTH, 24);
+        assertEquals(0, mLayoutManager.getOffsetX());
+        assertEquals(0, mAdapter.mBindCount);
+    }
+
+    @Test
+    public void disablingWarmPagesRestoresAppCacheSize() {
+        // 应用自己的缓存足够保存一页
+        mLayoutManager.setViewCacheSize(VISIBLE + ONE_COLUMN);
+        mLayoutManager.setWarmPageCount(2);
+        mLayoutManager.setWarmPageCount(0);
+        drag(WIDTH, 24);
+        resetCounters();
+
+        drag(-WIDTH, 24);
+        assertEquals(0, mLayoutManager.getOffsetX());
+        assertEquals(0, mAdapter.mBindCount);
+    }
+
+    @Test
+    public void slotAffineRecyclingReusesViewsWithoutMeasure() {
+        mLayoutManager.setSlotAffineRecycling(true);
+        drag(WIDTH, 24);
+        resetCounters();
+
+        drag(WIDTH * 3, 24);
+        assertEquals(4 * WIDTH, mLayoutManager.getOffsetX());
+        assertTrue("slot reuse = " + metrics().getSlotReuseCount(),
+                   metrics().getSlotReuseCount() >= 3 * VISIBLE);
+        // 同一槽位的View尺寸不变，重新绑定后不需要测量
+        assertTrue("measure = " + metrics().getMeasureCount(),
+                   metrics().getMeasureCount() <= mAdapter.mCreateCount);
+    }
+
+    @Test
+    public void slotAffineRecyclingKeepsViewTypes() {
+        TwoTypeAdapter adapter = new TwoTypeAdapter(VISIBLE * 100);
+        mAdapter = adapter;
+        mRecyclerView.setAdapter(adapter);
+        mLayoutManager.setSlotAffineRecycling(true);
+        layout();
+
+        // 相邻页面同一槽位的条目类型不同，暂存的View不能直接重新绑定
+        drag(WIDTH * 4, 24);
+        assertEquals(4 * WIDTH, mLayoutManager.getOffsetX());
+        assertEquals(0, adapter.mWrongTypeBindCount);
+        drag(-WIDTH * 2, 24);
+        assertEquals(0, adapter.mWrongTypeBindCount);
+    }
+
+    @Test
+    public void prefetchAcrossTwoPagesIsAnnouncedOnce() {
+        BatchAdapter adapter = new BatchAdapter(VISIBLE * 100);
+        mAdapter = adapter;
+        mRecyclerView.setAdapter(adapter);
+        mLayoutManager.setPrefetchLineCount(2 * COLUMNS);
+        mLayoutManager.scrollToPage(5);
+        layout();
+        adapter.mPrefetchPages.clear();
+
+        RecyclerView.LayoutManager.LayoutPrefetchRegistry registry =
+                new RecyclerView.LayoutManager.LayoutPrefetchRegistry() {
+                    @Override public void addPosition(int layoutPosition, int pixelDistance) {
+                    }
+                };
+        RecyclerView.State state = new RecyclerView.State();
+        // GapWorker 每一帧都会重新收集，来回改变方向时两侧各覆盖两页，每页只通知一次
+        for (int frame = 0; frame < 6; frame++) {
+            int dx = frame % 2 == 0 ? 1 : -1;
+            mLayoutManager.collectAdjacentPrefetchPositions(dx, 0, state, registry);
+        }
+
+        Collections.sort(adapter.mPrefetchPages);
+        assertEquals(Arrays.asList(2, 3, 7, 8), adapter.mPrefetchPages);
+    }
+
+    @Test
+    public void slotStashIsRecycledWhenAdapterChanges() {
+        mLayoutManager.setSlotAffineRecycling(true);
+        drag(WIDTH, 24);
+        assertTrue(mLayoutManager.getSlotStashCount() > 0);
+
+        CountingAdapter oldAdapter = mAdapter;
+        mAdapter = new CountingAdapter(VISIBLE * 100);
+        mRecyclerView.setAdapter(mAdapter);
+        assertEquals(0, mLayoutManager.getSlotStashCount());
+        // 旧 Adapter 创建的View全部经过 Recycler 回收，包括暂存的View
+        assertTrue(oldAdapter.mRecycledHolders.containsAll(oldAdapter.mCreatedHolders));
+        layout();
+        assertEquals(VISIBLE + ONE_COLUMN, mRecyclerView.getChildCount());
+    }
+
+    @Test
+    public void slotStashIsRecycledWhenAdapterIsSwapped() {
+        mLayoutManager.setSlotAffineRecycling(true);
+        drag(WIDTH, 24);
+        assertTrue(mLayoutManager.getSlotStashCount() > 0);
+
+        mAdapter = new CountingAdapter(VISIBLE * 100);
+        mRecyclerView.swapAdapter(mAdapter, false);
+        layout();
+        assertEquals(0, mLayoutManager.getSlotStashCount());
+        assertEquals(WIDTH, mLayoutManager.getOffsetX());
+    }
+
+    @Test
+    public void slotStashIsRecycledOnDetach() {
+        mLayoutManager.setSlotAffineRecycling(true);
+        drag(WIDTH, 24);
+        assertTrue(mLayoutManager.getSlotStashCount() > 0);
+
+        mActivity.setContentView(new View(mActivity));
+        assertEquals(0, mLayoutManager.getSlotStashCount());
+    }
+
+    @Test
+    public void slotStashIsNotUsedWhileItemsAnimate() {
+        mLayoutManager.setSlotAffineRecycling(true);
+        drag(WIDTH, 24);
+        assertTrue(mLayoutManager.getSlotStashCount() > 0);
+
+        mAdapter.mItemCount--;
+        mAdapter.notifyItemRemoved(2 * VISIBLE);
+        layoutWithoutAnimations();
+        assertEquals(0, mLayoutManager.getSlotStashCount());
+        assertTrue(mRecyclerView.isAnimating());
+
+        // 动画执行期间离开显示区域的View直接交给 Recycler
+        mRecyclerView.scrollBy(ITEM_WIDTH, 0);
+        assertEquals(0, mLayoutManager.getSlotStashCount());
+    }
+
+    @Test
+    public void pageBatchArrivesBeforeCellBinds() {
+        BatchAdapter adapter = new BatchAdapter(VISIBLE * 100);
+        mAdapter = adapter;
+        mRecyclerView.setAdapter(adapter);
+        layout();
+        assertEquals(0, adapter.mUnbatchedBindCount);
+        assertTrue(adapter.mVisibleBatchCount >= 1);
+
+        drag(WIDTH * 3, 24);
+        assertEquals(0, adapter.mUnbatchedBindCount);
+        // 每页最多通知一次显示，不会按条目通知
+        assertTrue("batches = " + adapter.mVisibleBatchCount, adapter.mVisibleBatchCount <= 6);
+    }
+
+    @Test
+    public void impressionsAreBatchedWhenFlingSettles() {
+        final List<Integer> impressions = new ArrayList<>();
+        final int[] batches = {0};
+        mLayoutManager.setImpressionThreshold(0.5f, 1000);
+        mLayoutManager.setImpressionListener(new PagerGridLayoutManager.ImpressionListener() {
+            @Override public void onImpressions(int[] positions, long[] dwellMillis, int count) {
+                batches[0]++;
+                for (int i = 0; i < count; i++) {
+                    assertTrue(dwellMillis[i] >= 1000);
+                    impressions.add(positions[i]);
+                }
+            }
+        });
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.attachToRecyclerView(mRecyclerView);
+
+        mRecyclerView.fling(5000, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        // 第 0 页显示时间不足，只有停留的第 1 页曝光，并且一次回调
+        Collections.sort(impressions);
+        List<Integer> expected = new ArrayList<>();
+        for (int pos = VISIBLE; pos < 2 * VISIBLE; pos++) {
+            expected.add(pos);
+        }
+        assertEquals(expected, impressions);
+        assertEquals(1, batches[0]);
+    }
+
+    @Test
+    public void insertOnLaterPageMovesOnlyFollowingCells() {
+        mLayoutManager.scrollToPage(2);
+        layout();
+        int first = 2 * VISIBLE;
+        int k = first + 2;                  // 第 2 页第一行最后一个
+        View[] before = visibleViews(first, first + 2 * VISIBLE);
+        resetCounters();
+
+        mAdapter.mItemCount++;
+        mAdapter.notifyItemInserted(k);
+        layoutWithoutAnimations();
+
+        for (int pos = first; pos < k; pos++) {
+            assertSame(before[pos - first], mLayoutManager.findViewByPosition(pos));
+            assertEquals(expectedLeft(pos, 2), before[pos - first].getLeft());
+        }
+        for (int pos = k; pos < first + 2 * VISIBLE - 1; pos++) {
+            View view = before[pos - first];
+            if (view == null) continue;
+            // 后面的条目(包括跨过页面边界的)移动到下一个位置，移出显示区域的条目作为消失条目布局在新位置
+            assertSame(mRecyclerView, view.getParent());
+            assertEquals(expectedLeft(pos + 1, 2), view.getLeft());
+        }
+        // 只绑定新增的条目
+        assertEquals(Collections.singletonList(k), mAdapter.mBoundPositions);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void removeOnLaterPageRebindsOnlyFollowingCells() {
+        mLayoutManager.scrollToPage(2);
+        layout();
+        int first = 2 * VISIBLE;
+        int k = first + 2;
+        View[] before = visibleViews(first, first + 2 * VISIBLE);
+        resetCounters();
+
+        mAdapter.mItemCount--;
+        mAdapter.notifyItemRemoved(k);
+        layoutWithoutAnimations();
+
+        for (int pos = first; pos < k; pos++) {
+            assertSame(before[pos - first], mLayoutManager.findViewByPosition(pos));
+            assertEquals(expectedLeft(pos, 2), before[pos - first].getLeft());
+        }
+        for (int pos = k + 1; pos < first + 2 * VISIBLE; pos++) {
+            View view = before[pos - first];
+            if (view == null) continue;
+            assertEquals(expectedLeft(pos - 1, 2), view.getLeft());
+        }
+        // 只有移动到显示区域中的条目需要绑定，删除位置之前的条目不受影响
+        assertTrue("binds = " + mAdapter.mBoundPositions, mAdapter.mBindCount <= COLUMNS);
+        for (int pos : mAdapter.mBoundPositions) {
+            assertTrue("bound " + pos, pos >= k);
+        }
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void subCellDeltasDoNoWork() {
+        mRecyclerView.scrollBy(ITEM_WIDTH / 2, 0);   // 移动到条目中间
+        resetCounters();
+        for (int i = 0; i < ITEM_WIDTH / 4; i++) {
+            mRecyclerView.scrollBy(1, 0);
+        }
+        assertEquals(0, mAdapter.mBindCount);
+        assertEquals(0, metrics().getViewFetchCount());
+        assertEquals(0, metrics().getMeasureCount());
+        assertEquals(0, metrics().getFillCount());
+        assertEquals(ITEM_WIDTH / 4, metrics().getSkippedFillCount());
+    }
+
+    @Test
+    public void flingSnapsToNextPage() {
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        resetCounters();
+
+        mRecyclerView.fling(5000, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, mRecyclerView.getScrollState());
+        assertEquals(WIDTH, mLayoutManager.getOffsetX());
+        assertEquals(1, mLayoutManager.getCurrentPageIndex());
+        assertTrue("binds per fling = " + mAdapter.mBindCount,
+                   mAdapter.mBindCount <= VISIBLE + ONE_COLUMN);
+    }
+
+    @Test
+    public void slowFlingThenSnapStillFullBinds() {
+        mLayoutManager.setLightweightBindingThreshold(100);
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        resetCounters();
+
+        // 低于对齐阀值的慢速滑动由 RecyclerView 自己处理，停止时对齐滚动会立即开始
+        mRecyclerView.fling(900, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, mRecyclerView.getScrollState());
+        assertEquals(0, mLayoutManager.getOffsetX() % WIDTH);
+        assertTrue("lightweight binds = " + mAdapter.mLightweightBindCount,
+                   mAdapter.mLightweightBindCount > 0);
+        assertTrue("full binds = " + mAdapter.mFullBindCount,
+                   mAdapter.mFullBindCount >= VISIBLE);
+    }
+
+    @Test
+    public void lightweightFillIsRecordedByManager() {
+        mLayoutManager.setLightweightBindingThreshold(100);
+        mAdapter.mQueryLightweight = false;
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        resetCounters();
+
+        // Adapter 没有查询状态，快速滚动中的填充仍然由 LayoutManager 记录，停止后完整绑定
+        mRecyclerView.fling(5000, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, mRecyclerView.getScrollState());
+        assertTrue("full binds = " + mAdapter.mFullBindCount,
+                   mAdapter.mFullBindCount >= VISIBLE);
+        // 查询本身不会产生新的完整绑定
+        mAdapter.mFullBindCount = 0;
+        for (int i = 0; i < 10; i++) {
+            assertTrue(!mLayoutManager.isLightweightBinding());
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, mAdapter.mFullBindCount);
+    }
+
+    @Test
+    public void fastFlingMovesSeveralPagesUpToCap() {
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.setMaxFlingPages(4);
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        mLayoutManager.scrollToPage(10);
+        layout();
+        resetCounters();
+
+        mRecyclerView.fling(20000, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        int page = mLayoutManager.getCurrentPageIndex();
+        assertTrue("page = " + page, page > 11 && page <= 14);
+        assertEquals(page * WIDTH, mLayoutManager.getOffsetX());
+        // 跳过中间页面，只绑定相邻页面和目标页面
+        assertTrue("binds = " + mAdapter.mBindCount,
+                   mAdapter.mBindCount <= 2 * (VISIBLE + 2 * ONE_COLUMN));
+    }
+
+    @Test
+    public void springSnapRetargetsAndEndsOnPageBoundary() {
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.setSpringSnapEnabled(true);
+        snapHelper.attachToRecyclerView(mRecyclerView);
+
+        mRecyclerView.fling(5000, 0);
+        shadowOf(Looper.getMainLooper()).idleFor(48, TimeUnit.MILLISECONDS);
+        assertEquals(RecyclerView.SCROLL_STATE_SETTLING, mRecyclerView.getScrollState());
+        // 滚动过程中更换目标
+        snapHelper.snapToPage(2);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(RecyclerView.SCROLL_STATE_IDLE, mRecyclerView.getScrollState());
+        assertEquals(2, mLayoutManager.getCurrentPageIndex());
+        assertEquals(2 * WIDTH, mLayoutManager.getOffsetX());
+    }
+
+    @Test
+    public void springSnapToDistantPageDoesNotStopScroll() {
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.setSpringSnapEnabled(true);
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        mLayoutManager.setLightweightBindingThreshold(100);
+
+        snapHelper.snapToPage(1);
+        shadowOf(Looper.getMainLooper()).idleFor(48, TimeUnit.MILLISECONDS);
+        assertEquals(RecyclerView.SCROLL_STATE_SETTLING, mRecyclerView.getScrollState());
+        final List<Integer> states = new ArrayList<>();
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                states.add(newState);
+            }
+        });
+        resetCounters();
+
+        // 跳过中间页面时不会经过 IDLE，只在最终停止时通知一次，也只完整绑定一次
+        snapHelper.snapToPage(20);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(RecyclerView.SCROLL_STATE_IDLE), states);
+        assertEquals(20, mLayoutManager.getCurrentPageIndex());
+        assertEquals(20 * WIDTH, mLayoutManager.getOffsetX());
+        assertTrue("full binds = " + mAdapter.mFullBindCount,
+                   mAdapter.mFullBindCount <= VISIBLE + 2 * ONE_COLUMN);
+    }
+
+    @Test
+    public void slowFlingDoesNotResetToFirstPage() {
+        PagerGridSnapHelper snapHelper = new PagerGridSnapHelper();
+        snapHelper.attachToRecyclerView(mRecyclerView);
+        mLayoutManager.scrollToPage(5);
+        layout();
+
+        assertEquals(RecyclerView.NO_POSITION,
+                     snapHelper.findTargetSnapPosition(mLayoutManager, 500, 0));
+        assertEquals(RecyclerView.NO_POSITION,
+                     snapHelper.findTargetSnapPosition(mLayoutManager, 0, 5000));
+        assertEquals(6 * VISIBLE, snapHelper.findTargetSnapPosition(mLayoutManager, 5000, 0));
+    }
+
+    @Test
+    public void scrollToDistantPageBindsOnlyTargetPage() {
+        resetCounters();
+        mLayoutManager.scrollToPage(80);
+        layout();
+        assertEquals(80 * WIDTH, mLayoutManager.getOffsetX());
+        // 目标页面 + 左右各多存储的一列
+        assertTrue("binds = " + mAdapter.mBindCount,
+                   mAdapter.mBindCount <= VISIBLE + 2 * ONE_COLUMN);
+    }
+
+    @Test
+    public void smoothScrollDurationIsCappedForFullPage() {
+        PagerGridLayoutManager.PageSmoothScroller scroller =
+                mLayoutManager.new PageSmoothScroller(mActivity);
+        RecyclerView.SmoothScroller.Action action = new RecyclerView.SmoothScroller.Action(0, 0);
+        scroller.onTargetFound(mLayoutManager.findViewByPosition(VISIBLE),
+                               new RecyclerView.State(), action);
+
+        assertEquals(WIDTH, action.getDx());
+        assertTrue("duration = " + action.getDuration(), action.getDuration() > 0);
+        assertTrue("duration = " + action.getDuration(),
+                   action.getDuration() <= PagerGridLayoutManager.MAX_SMOOTH_SCROLL_DURATION);
+    }
+
+    @Test
+    public void restoreStateBindsOnlyOnePage() {
+        mLayoutManager.scrollToPage(40);
+        layout();
+
+        Parcel parcel = Parcel.obtain();
+        mLayoutManager.onSaveInstanceState().writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        PagerGridLayoutManager.SavedState state =
+                PagerGridLayoutManager.SavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        mLayoutManager = new PagerGridLayoutManager(ROWS, COLUMNS,
+                                                    PagerGridLayoutManager.HORIZONTAL);
+        mLayoutManager.onRestoreInstanceState(state);
+        mAdapter = new CountingAdapter(VISIBLE * 100);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+        layout();
+
+        assertEquals(40, mLayoutManager.getCurrentPageIndex());
+        assertEquals(40 * WIDTH, mLayoutManager.getOffsetX());
+        assertTrue("binds = " + mAdapter.mBindCount,
+                   mAdapter.mBindCount <= VISIBLE + 2 * ONE_COLUMN);
+    }
+
+    @Test
+    public void pageLifecycleAnnouncesPagesAheadOfScroll() {
+        final StringBuilder events = new StringBuilder();
+        mLayoutManager.addPageLifecycleListener(
+                new PagerGridLayoutManager.PageLifecycleListener() {
+                    @Override
+                    public void onPageWillAppear(int pageIndex, int firstPos, int lastPos) {
+                        events.append("will").append(pageIndex).append(' ');
+                    }
+
+                    @Override
+                    public void onPageAppeared(int pageIndex, int firstPos, int lastPos) {
+                        assertEquals(pageIndex * VISIBLE, firstPos);
+                        assertEquals(firstPos + VISIBLE - 1, lastPos);
+                        events.append("in").append(pageIndex).append(' ');
+                    }
+
+                    @Override
+                    public void onPageDisappeared(int pageIndex, int firstPos, int lastPos) {
+                        events.append("out").append(pageIndex).append(' ');
+                    }
+                });
+        assertEquals("will0 in0 ", events.toString());
+
+        // 下一页在进入显示区域之前收到预告
+        events.setLength(0);
+        drag(WIDTH / 4, 40);
+        assertTrue(events.toString(), events.toString().startsWith("will1 "));
+
+        // 反向拖动回到第一页，下一页收到离开通知
+        events.setLength(0);
+        drag(-WIDTH / 4, 40);
+        assertTrue(events.toString(), events.toString().contains("out1 "));
+    }
+
+    @Test
+    public void dataLoaderSharesPageLifecycleWithOtherListeners() {
+        PagerDataLoader<Integer> loader = new PagerDataLoader<>(
+                mLayoutManager, new PagerDataLoader.Backend<Integer>() {
+                    @Override
+                    public void loadPage(int pageIndex, int firstPos, int count,
+                                         PagerDataLoader.Callback<Integer> callback) {
+                        List<Integer> items = new ArrayList<>();
+                        for (int i = 0; i < count; i++) {
+                            items.add(firstPos + i);
+                        }
+                        callback.onPageLoaded(items);
+                    }
+
+                    @Override public void cancelPage(int pageIndex) {
+                    }
+                }, 4, new java.util.concurrent.Executor() {
+                    @Override public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+        final StringBuilder events = new StringBuilder();
+        mLayoutManager.addPageLifecycleListener(
+                new PagerGridLayoutManager.PageLifecycleListener() {
+                    @Override
+                    public void onPageWillAppear(int pageIndex, int firstPos, int lastPos) {
+                    }
+
+                    @Override
+                    public void onPageAppeared(int pageIndex, int firstPos, int lastPos) {
+                        events.append("in").append(pageIndex).append(' ');
+                    }
+
+                    @Override
+                    public void onPageDisappeared(int pageIndex, int firstPos, int lastPos) {
+                    }
+                });
+        // 后添加的监听立即收到当前页面，之前的数据源不受影响
+        assertEquals("in0 ", events.toString());
+        assertTrue(loader.isPageLoaded(0));
+
+        drag(WIDTH, 24);
+        assertTrue(events.toString(), events.toString().contains("in1 "));
+        assertTrue(loader.isPageLoaded(1));
+    }
+
+    @Test
+    public void scrollProgressIsDispatchedOncePerFrame() {
+        final float[] last = new float[3];      // 回调次数、页码、进度
+        mLayoutManager.addPageScrollListener(new PagerGridLayoutManager.PageScrollListener() {
+            @Override
+            public void onPageScrolled(int pageIndex, float pageOffsetFraction,
+                                       int pageOffsetPixels) {
+                last[0]++;
+                last[1] = pageIndex;
+                last[2] = pageOffsetFraction;
+            }
+        });
+
+        // 同一帧内的多次滚动只分发一次
+        for (int i = 0; i < 10; i++) {
+            mRecyclerView.scrollBy(WIDTH / 8, 0);
+        }
+        assertEquals(0, (int) last[0]);
+        shadowOf(Looper.getMainLooper()).idleFor(16, TimeUnit.MILLISECONDS);
+        assertEquals(1, (int) last[0]);
+        assertEquals(1, (int) last[1]);
+        assertEquals(0.25f, last[2], 0.001f);
+    }
+
+    @Test
+    public void fastSettleBindsLightweightThenFullBindsSettledPage() {
+        mLayoutManager.setLightweightBindingThreshold(500);
+        mLayoutManager.smoothScrollToPage(1);
+        shadowOf(Looper.getMainLooper()).idleFor(3, TimeUnit.SECONDS);
+
+        assertEquals(1, mLayoutManager.getCurrentPageIndex());
+        assertTrue("lightweight binds = " + mAdapter.mLightweightBindCount,
+                   mAdapter.mLightweightBindCount > 0);
+        // 停留页面的条目全部完整绑定
+        assertTrue("full binds = " + mAdapter.mFullBindCount,
+                   mAdapter.mFullBindCount >= VISIBLE);
+        assertTrue(!mLayoutManager.isLightweightBinding());
+    }
+
+    @Test
+    public void restoreStateAtNewSizeKeepsPageAndFirstVisible() {
+        mLayoutManager.scrollToPage(12);
+        layout();
+
+        Parcel parcel = Parcel.obtain();
+        mLayoutManager.onSaveInstanceState().writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        PagerGridLayoutManager.SavedState state =
+                PagerGridLayoutManager.SavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        // 模拟旋转屏幕：新的 LayoutManager 在不同尺寸下恢复状态
+        int width = 1200;
+        int height = 700;
+        mLayoutManager = new PagerGridLayoutManager(ROWS, COLUMNS,
+                                                    PagerGridLayoutManager.HORIZONTAL);
+        mLayoutManager.onRestoreInstanceState(state);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setLayoutParams(new ViewGroup.LayoutParams(width, height));
+        layout(width, height);
+
+        assertEquals(12, mLayoutManager.getCurrentPageIndex());
+        assertEquals(12 * width, mLayoutManager.getOffsetX());
+
+        int firstVisible = Integer.MAX_VALUE;
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            View child = mRecyclerView.getChildAt(i);
+            if (child.getRight() > 0 && child.getLeft() < width) {
+                firstVisible = Math.min(firstVisible, mLayoutManager.getPosition(child));
+            }
+        }
+        assertEquals(12 * VISIBLE, firstVisible);
+        assertEquals(0, mLayoutManager.findViewByPosition(12 * VISIBLE).getLeft());
+    }
+
+    @Test
+    public void restoreKeepsGridPassedToConstructor() {
+        mLayoutManager.scrollToPage(12);
+        layout();
+        PagerGridLayoutManager.SavedState state = saveState();
+
+        // 重建时使用更多的行列，页码按照页面第一个条目换算
+        mLayoutManager = new PagerGridLayoutManager(3, 4, PagerGridLayoutManager.HORIZONTAL);
+        mLayoutManager.onRestoreInstanceState(state);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        layout();
+
+        assertEquals(12, mLayoutManager.getOnePageSize());
+        assertEquals(6, mLayoutManager.getCurrentPageIndex());
+        assertEquals(6 * WIDTH, mLayoutManager.getOffsetX());
+        assertEquals(0, mLayoutManager.findViewByPosition(6 * 12).getLeft());
+
+        // 重建时更换滚动方向
+        state = saveState();
+        mLayoutManager = new PagerGridLayoutManager(3, 4, PagerGridLayoutManager.VERTICAL);
+        mLayoutManager.onRestoreInstanceState(state);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        layout();
+
+        assertTrue(mLayoutManager.canScrollVertically());
+        assertEquals(6, mLayoutManager.getCurrentPageIndex());
+        assertEquals(0, mLayoutManager.getOffsetX());
+        assertEquals(6 * HEIGHT, mLayoutManager.getOffsetY());
+    }
+
+    @Test
+    public void restoreKeepsOffsetInsidePage() {
+        mLayoutManager.scrollToPage(3);
+        layout();
+        mRecyclerView.scrollBy(WIDTH / 4, 0);
+        PagerGridLayoutManager.SavedState state = saveState();
+
+        int width = 1200;
+        mLayoutManager = new PagerGridLayoutManager(ROWS, COLUMNS,
+                                                    PagerGridLayoutManager.HORIZONTAL);
+        mLayoutManager.onRestoreInstanceState(state);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setLayoutParams(new ViewGroup.LayoutParams(width, HEIGHT));
+        layout(width, HEIGHT);
+
+        // 页面内的偏移量按页面尺寸等比缩放
+        assertEquals(3, mLayoutManager.getCurrentPageIndex());
+        assertEquals(3 * width + width / 4, mLayoutManager.getOffsetX());
+    }
+
+    //--- 工具方法 ----------------------------------------------------------------------------------
+
+    /**
+     * 保存状态并经过一次 Parcel 序列化
+     */
+    private PagerGridLayoutManager.SavedState saveState() {
+        Parcel parcel = Parcel.obtain();
+        mLayoutManager.onSaveInstanceState().writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        PagerGridLayoutManager.SavedState state =
+                PagerGridLayoutManager.SavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+        return state;
+    }
+
+    private PagerMetrics metrics() {
+        return mLayoutManager.getMetrics();
+    }
+
+    private void resetCounters() {
+        mAdapter.mBindCount = 0;
+        mAdapter.mCreateCount = 0;
+        mAdapter.mBoundPositions.clear();
+        metrics().reset();
+    }
+
+    /**
+     * 布局但不执行消息循环，条目动画保持在开始状态，消失的条目仍然是子View
+     */
+    private void layoutWithoutAnimations() {
+        mRecyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * 获取一段位置上已经显示的View
+     */
+    private View[] visibleViews(int from, int to) {
+        View[] views = new View[to - from];
+        for (int pos = from; pos < to; pos++) {
+            views[pos - from] = mLayoutManager.findViewByPosition(pos);
+        }
+        return views;
+    }
+
+    /**
+     * 条目相对于 RecyclerView 的左边界
+     *
+     * @param pos  条目下标
+     * @param page 当前页码
+     */
+    private static int expectedLeft(int pos, int page) {
+        return (pos / VISIBLE - page) * WIDTH + pos % VISIBLE % COLUMNS * ITEM_WIDTH;
+    }
+
+    private void layout() {
+        layout(WIDTH, HEIGHT);
+    }
+
+    /**
+     * 在指定尺寸下测量和布局
+     *
+     * @param width  宽度
+     * @param height 高度
+     */
+    private void layout(int width, int height) {
+        mRecyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, width, height);
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * 模拟拖动，每一帧移动 step 像素
+     *
+     * @param distance 拖动距离
+     * @param step     每帧移动距离
+     */
+    private void drag(int distance, int step) {
+        int direction = distance > 0 ? 1 : -1;
+        int remaining = Math.abs(distance);
+        while (remaining > 0) {
+            int delta = Math.min(step, remaining);
+            mRecyclerView.scrollBy(direction * delta, 0);
+            remaining -= delta;
+            shadowOf(Looper.getMainLooper()).idleFor(16, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 实现批量绑定的 Adapter，检查条目绑定前所在页面已经收到通知
+     */
+    private class BatchAdapter extends CountingAdapter
+            implements PagerGridLayoutManager.PageBatchBinder {
+        int mFirstBatchedPos = -1;
+        int mLastBatchedPos = -1;
+        int mVisibleBatchCount = 0;
+        int mUnbatchedBindCount = 0;
+        final List<Integer> mPrefetchPages = new ArrayList<>();
+
+        BatchAdapter(int itemCount) {
+            super(itemCount);
+        }
+
+        @Override
+        public void onBindPage(int pageIndex, int firstPos, int lastPos, int reason) {
+            assertEquals(pageIndex * VISIBLE, firstPos);
+            if (reason == REASON_VISIBLE) mVisibleBatchCount++;
+            if (reason == REASON_PREFETCH) mPrefetchPages.add(pageIndex);
+            if (mFirstBatchedPos < 0 || firstPos < mFirstBatchedPos) mFirstBatchedPos = firstPos;
+            if (lastPos > mLastBatchedPos) mLastBatchedPos = lastPos;
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            super.onBindViewHolder(holder, position);
+            if (position < mFirstBatchedPos || position > mLastBatchedPos) {
+                mUnbatchedBindCount++;
+            }
+        }
+    }
+
+    /**
+     * 两种条目类型的 Adapter，奇数页的第一行使用另一种类型，检查绑定时 ViewHolder 的类型
+     */
+    private class TwoTypeAdapter extends CountingAdapter {
+        int mWrongTypeBindCount = 0;
+
+        TwoTypeAdapter(int itemCount) {
+            super(itemCount);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            int page = position / VISIBLE;
+            return page % 2 == 1 && position % VISIBLE < COLUMNS ? 1 : 0;
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            super.onBindViewHolder(holder, position);
+            if (holder.getItemViewType() != getItemViewType(position)) {
+                mWrongTypeBindCount++;
+            }
+        }
+    }
+
+    /**
+     * 统计创建和绑定次数的 Adapter
+     */
+    private class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int mItemCount;
+        int mCreateCount = 0;
+        int mBindCount = 0;
+        final List<Integer> mBoundPositions = new ArrayList<>();
+        int mLightweightBindCount = 0;
+        int mFullBindCount = 0;
+        boolean mQueryLightweight = true;
+        ViewGroup mLastCreateParent = null;
+        final List<RecyclerView.ViewHolder> mCreatedHolders = new ArrayList<>();
+        final Set<RecyclerView.ViewHolder> mRecycledHolders = new HashSet<>();
+
+        CountingAdapter(int itemCount) {
+            mItemCount = itemCount;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            mCreateCount++;
+            mLastCreateParent = parent;
+            metrics().recordCreate();
+            RecyclerView.ViewHolder holder =
+                    new RecyclerView.ViewHolder(new View(parent.getContext())) {};
+            mCreatedHolders.add(holder);
+            return holder;
+        }
+
+        @Override
+        public void onViewRecycled(RecyclerView.ViewHolder holder) {
+            mRecycledHolders.add(holder);
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            mBindCount++;
+            mBoundPositions.add(position);
+            metrics().recordBind();
+            if (mQueryLightweight && mLayoutManager.isLightweightBinding()) {
+                mLightweightBindCount++;
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position,
+                                     List<Object> payloads) {
+            if (payloads.contains(PagerGridLayoutManager.PAYLOAD_FULL_BIND)) {
+                mFullBindCount++;
+            }
+            onBindViewHolder(holder, position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItemCount;
+        }
+    }
+}